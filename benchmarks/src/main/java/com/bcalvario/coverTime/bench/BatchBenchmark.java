@@ -0,0 +1,91 @@
+package com.bcalvario.coverTime.bench;
+
+import com.bcalvario.coverTime.CsrGraph;
+import com.bcalvario.coverTime.FastRandom;
+import com.bcalvario.coverTime.GraphType;
+import com.bcalvario.coverTime.NonBacktrackingRandomWalk;
+import com.bcalvario.coverTime.SimpleRandomWalk;
+import com.bcalvario.coverTime.WalkBatch;
+import com.bcalvario.coverTime.WalkStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same walks run one at a time and in lockstep by {@link WalkBatch}. Both draw walk i from
+ * new FastRandom(seeds[i]), so they take the same steps and the "steps" rates compare directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    @Param({"1000", "100000"})
+    int n;
+    @Param({"Simple", "Non-Backtracking"})
+    String strategy;
+    // Walks per operation, all in flight at once in the batch.
+    @Param({"64"})
+    int walks;
+
+    private CsrGraph graph;
+    private WalkStrategy walk;
+    private WalkBatch batch;
+    private FastRandom seeds;
+
+    /**
+     * Counts the steps walked, so JMH reports them as a rate next to the operation rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Steps {
+        public long steps;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            steps = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = GraphType.SIMPLE.generateCsr(n, 3 * n, new FastRandom(42));
+        walk = strategy.equals("Simple") ? new SimpleRandomWalk() : new NonBacktrackingRandomWalk();
+        batch = new WalkBatch(graph, walk, walks);
+        seeds = new FastRandom(7);
+    }
+
+    @Benchmark
+    public long single(Steps counter) {
+        long steps = 0;
+        for (int i = 0; i < walks; i++) {
+            steps += walk.cover(graph, new FastRandom(seeds.nextLong()), Long.MAX_VALUE).steps();
+        }
+        counter.steps += steps;
+        return steps;
+    }
+
+    @Benchmark
+    public long batched(Steps counter) {
+        long steps = 0;
+        for (long t : batch.coverTimes(walks, seeds)) {
+            steps += t;
+        }
+        counter.steps += steps;
+        return steps;
+    }
+}
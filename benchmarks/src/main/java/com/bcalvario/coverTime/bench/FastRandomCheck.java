@@ -0,0 +1,54 @@
+package com.bcalvario.coverTime.bench;
+
+import com.bcalvario.coverTime.FastRandom;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * Known-answer check of {@link FastRandom}, run by {@link BenchmarkMain} before any benchmark, so
+ * a broken generator is caught before its throughput is measured. The expected values come from
+ * a reference xoshiro256++ seeded with the published SplitMix64 outputs of seed 0
+ * (0xE220A8397B1DCDAF, 0x6E789E6AA1B965F4, 0x06C45D188009454F, 0xF88BB8A8724C81EC).
+ */
+final class FastRandomCheck {
+    // 2^32 mod this bound is bound - 2, so about a third of the draws take Lemire's rejection path.
+    private static final int REJECTING_BOUND = 1431655766;
+
+    private FastRandomCheck() {
+    }
+
+    /**
+     * Compares fixed-seed output prefixes with the reference: raw outputs, bounded draws, of
+     * which the fifth with REJECTING_BOUND is rejected once, and split(), whose child is seeded
+     * with the parent's first output.
+     * @throws IllegalStateException On the first prefix that differs.
+     */
+    static void run() {
+        expect("nextLong()", draw(new FastRandom(0), FastRandom::nextLong, 4),
+                5987356902031041503L, 7051070477665621255L, 6633766593972829180L, 211316841551650330L);
+        expect("nextInt(6)", draw(new FastRandom(0), r -> r.nextInt(6), 6),
+                1, 2, 2, 0, 2, 0);
+        expect("nextInt(" + REJECTING_BOUND + ")", draw(new FastRandom(0), r -> r.nextInt(REJECTING_BOUND), 6),
+                464680053, 547235092, 514848048, 16400345, 29442343, 1227283181);
+        FastRandom parent = new FastRandom(0);
+        FastRandom child = parent.split();
+        expect("split() parent", draw(parent, FastRandom::nextLong, 1), 7051070477665621255L);
+        expect("split() child", draw(child, FastRandom::nextLong, 2), -1925114433886751451L, -3506192500380777438L);
+    }
+
+    private static long[] draw(FastRandom rand, ToLongFunction<FastRandom> next, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = next.applyAsLong(rand);
+        }
+        return values;
+    }
+
+    private static void expect(String what, long[] actual, long... expected) {
+        if (!Arrays.equals(actual, expected)) {
+            throw new IllegalStateException("FastRandom " + what + " gives " + Arrays.toString(actual)
+                    + ", expected " + Arrays.toString(expected));
+        }
+    }
+}
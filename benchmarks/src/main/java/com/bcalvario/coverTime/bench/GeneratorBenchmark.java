@@ -0,0 +1,96 @@
+package com.bcalvario.coverTime.bench;
+
+import com.bcalvario.coverTime.Connectivity;
+import com.bcalvario.coverTime.CsrGraph;
+import com.bcalvario.coverTime.FastRandom;
+import com.bcalvario.coverTime.GraphUtil;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generation time of both GraphUtil generators, JGraphT and direct-to-CSR, and the cost of the
+ * connectivity check, for every edge count GraphUtil.cList offers and a near-complete one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+    @Param({"20", "100", "1000"})
+    int n;
+    // Index into GraphUtil.cList(n): n - 1, 1.5n, 2n and 3n. cList only adds the complete graph
+    // for n < 9, below every n benchmarked here, so WalkBenchmark.DENSE (4) stands for the
+    // near-complete n(n-1)/2 - n edges, the regime of exact sampling.
+    @Param({"0", "1", "2", "3", "4"})
+    int cIndex;
+
+    private int c;
+    private RandomGenerator rand;
+    private Graph<Integer, DefaultEdge> graph;
+    private CsrGraph csr;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        c = WalkBenchmark.edgeCount(n, cIndex);
+        rand = new FastRandom(42);
+        graph = GraphUtil.connectedRandomMultigraph(n, c, rand);
+        csr = CsrGraph.of(graph);
+    }
+
+    @Benchmark
+    public Graph<Integer, DefaultEdge> connectedRandomSimpleGraph() {
+        return GraphUtil.connectedRandomSimpleGraph(n, c, rand);
+    }
+
+    @Benchmark
+    public Graph<Integer, DefaultEdge> connectedRandomMultigraph() {
+        return GraphUtil.connectedRandomMultigraph(n, c, rand);
+    }
+
+    @Benchmark
+    public CsrGraph connectedRandomSimpleCsr() {
+        return GraphUtil.connectedRandomSimpleCsr(n, c, rand);
+    }
+
+    @Benchmark
+    public CsrGraph connectedRandomMultigraphCsr() {
+        return GraphUtil.connectedRandomMultigraphCsr(n, c, rand);
+    }
+
+    @Benchmark
+    public CsrGraph randomMultigraphUntilConnectedCsr() {
+        return GraphUtil.randomMultigraphUntilConnectedCsr(n, c, rand);
+    }
+
+    @Benchmark
+    public boolean isConnected() {
+        return GraphUtil.isConnected(graph, n);
+    }
+
+    @Benchmark
+    public boolean isConnectedCsr() {
+        return GraphUtil.isConnected(csr);
+    }
+
+    @Benchmark
+    public Connectivity.Components components() {
+        return Connectivity.components(csr);
+    }
+}
@@ -0,0 +1,94 @@
+package com.bcalvario.coverTime.bench;
+
+import com.bcalvario.coverTime.CsrGraph;
+import com.bcalvario.coverTime.FastRandom;
+import com.bcalvario.coverTime.GraphType;
+import com.bcalvario.coverTime.SimpleRandomWalk;
+import com.bcalvario.coverTime.WalkStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Cost of the random numbers in the walk loop, per generator: bounded draws alone, and a whole
+ * simple-walk cover whose "steps" counter gives steps per second. sharedRandom shows what one
+ * java.util.Random shared by several threads costs, as when every run drew from Main's generator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RngBenchmark {
+    @Param({"Random", "SplittableRandom", "FastRandom"})
+    String generator;
+
+    private RandomGenerator rand;
+    private CsrGraph graph;
+    private int[] degrees;
+    private int next;
+    private final WalkStrategy walk = new SimpleRandomWalk();
+
+    /**
+     * One java.util.Random for all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final Random rand = new Random(42);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rand = switch (generator) {
+            case "Random" -> new Random(42);
+            case "SplittableRandom" -> new SplittableRandom(42);
+            default -> new FastRandom(42);
+        };
+        graph = GraphType.MULTIGRAPH.generateCsr(1000, 3000, new FastRandom(42));
+        degrees = new int[graph.vertexCount()];
+        for (int v = 0; v < degrees.length; v++) {
+            degrees[v] = graph.degree(v);
+        }
+    }
+
+    /**
+     * One bounded draw with the bound a walk would use, cycling through the graph's degrees.
+     */
+    @Benchmark
+    public int boundedInt() {
+        int bound = degrees[next];
+        next = next + 1 == degrees.length ? 0 : next + 1;
+        return rand.nextInt(bound);
+    }
+
+    @Benchmark
+    public long coverTime(WalkBenchmark.Steps counter) {
+        long steps = walk.cover(graph, rand, Long.MAX_VALUE).steps();
+        counter.steps += steps;
+        return steps;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int sharedRandom(Shared shared) {
+        int bound = degrees[next];
+        next = next + 1 == degrees.length ? 0 : next + 1;
+        return shared.rand.nextInt(bound);
+    }
+}
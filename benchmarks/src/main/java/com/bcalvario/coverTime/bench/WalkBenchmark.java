@@ -0,0 +1,106 @@
+package com.bcalvario.coverTime.bench;
+
+import com.bcalvario.coverTime.Adjacency;
+import com.bcalvario.coverTime.CsrGraph;
+import com.bcalvario.coverTime.FastRandom;
+import com.bcalvario.coverTime.GraphType;
+import com.bcalvario.coverTime.GraphUtil;
+import com.bcalvario.coverTime.NonBacktrackingRandomWalk;
+import com.bcalvario.coverTime.SimpleRandomWalk;
+import com.bcalvario.coverTime.WalkStrategy;
+import com.bcalvario.coverTime.WeightedCsrGraph;
+import com.bcalvario.coverTime.WeightedRandomWalk;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Walk throughput per strategy across graph sizes, densities and both graph types.
+ * Besides walks per second, the "steps" counter reports steps per second, which is comparable
+ * across graph sizes. Run with -prof gc (BenchmarkMain adds it) to see the per-step allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalkBenchmark {
+    // cIndex of the near-complete edge count.
+    static final int DENSE = 4;
+
+    @Param({"20", "100", "1000"})
+    int n;
+    // Index into GraphUtil.cList(n): n-1, 1.5n, 2n, 3n edges; DENSE is n(n-1)/2 - n.
+    @Param({"0", "1", "2", "3", "4"})
+    int cIndex;
+    @Param({"SIMPLE", "MULTIGRAPH"})
+    GraphType type;
+    // Weighted walks the same graph with uniform (0, 1) edge weights.
+    @Param({"Simple", "Non-Backtracking", "Weighted"})
+    String strategy;
+
+    private Adjacency graph;
+    private WalkStrategy walk;
+    private RandomGenerator rand;
+
+    /**
+     * Counts the steps walked, so JMH reports them as a rate next to the walk rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Steps {
+        public long steps;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            steps = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rand = new FastRandom(42);
+        CsrGraph csr = type.generateCsr(n, edgeCount(n, cIndex), rand);
+        walk = switch (strategy) {
+            case "Simple" -> new SimpleRandomWalk();
+            case "Weighted" -> new WeightedRandomWalk();
+            default -> new NonBacktrackingRandomWalk();
+        };
+        graph = walk instanceof WeightedRandomWalk ? WeightedCsrGraph.of(csr, rand::nextDouble) : csr;
+    }
+
+    @Benchmark
+    public long coverTime(Steps counter) {
+        long steps = walk.cover(graph, rand, Long.MAX_VALUE).steps();
+        counter.steps += steps;
+        return steps;
+    }
+
+    /**
+     * The cIndex-th entry of GraphUtil.cList(n), or its last entry if the list is shorter. DENSE
+     * gives a near-complete simple graph, n short of complete, where the generators sample the
+     * missing edges exactly.
+     */
+    static int edgeCount(int n, int cIndex) {
+        if (cIndex == DENSE) {
+            return n * (n - 1) / 2 - n;
+        }
+        List<Integer> cs = GraphUtil.cList(n);
+        return cs.get(Math.min(cIndex, cs.size() - 1));
+    }
+}
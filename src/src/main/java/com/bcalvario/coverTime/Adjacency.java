@@ -0,0 +1,51 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Read-only view of an undirected graph's adjacency as the walk strategies see it.
+ * Each vertex v has degree(v) neighbour slots; a parallel edge fills one slot per copy and a
+ * self-loop fills one slot, matching {@link CsrGraph}. Vertices are labelled 0 .. n-1.
+ *
+ * Walk strategies use specialised array kernels for the in-heap representations and fall back to
+ * these methods for any other implementation, such as {@link MappedGraph}.
+ */
+public interface Adjacency {
+    int vertexCount();
+
+    int degree(int v);
+
+    /**
+     * @return The i-th neighbour of v, 0 <= i < degree(v).
+     */
+    int neighbor(int v, int i);
+
+    /**
+     * @return The number of slots of v that lead to u.
+     */
+    default int multiplicity(int v, int u) {
+        int d = degree(v);
+        int count = 0;
+        for (int i = 0; i < d; i++) {
+            if (neighbor(v, i) == u) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the i-th neighbour of v once the first 'skip' slots that lead to u are left out,
+     * 0 <= i < degree(v) - skip. This is how a non-backtracking walk draws its next node.
+     */
+    default int neighborSkipping(int v, int u, int skip, int i) {
+        int d = degree(v);
+        for (int j = 0; j < d; j++) {
+            int w = neighbor(v, j);
+            if (w == u && skip > 0) {
+                skip--;
+            } else if (i-- == 0) {
+                return w;
+            }
+        }
+        throw new IndexOutOfBoundsException("slot " + i + " of vertex " + v);
+    }
+}
@@ -0,0 +1,106 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Vose alias tables for many small discrete distributions stored side by side, one per vertex.
+ * The entries of vertex v are offsets[v] .. offsets[v + 1] - 1 of a flat weight array. Sampling
+ * from v costs two random numbers and two array reads: pick an entry uniformly, keep it with
+ * probability prob[entry] or take alias[entry] instead.
+ */
+final class AliasTables {
+    // Vertices per parallel task when building.
+    private static final int BLOCK = 4096;
+
+    final double[] prob;
+    final int[] alias;
+    private final int[] offsets;
+
+    private AliasTables(int[] offsets, double[] prob, int[] alias) {
+        this.offsets = offsets;
+        this.prob = prob;
+        this.alias = alias;
+    }
+
+    /**
+     * Builds the tables of all vertices, in parallel over blocks of vertices.
+     * @param weights Non-negative weight of every entry.
+     * @throws IllegalArgumentException If a vertex with entries has total weight 0.
+     */
+    static AliasTables build(int[] offsets, double[] weights) {
+        AliasTables tables = new AliasTables(offsets, new double[weights.length], new int[weights.length]);
+        int n = offsets.length - 1;
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        IntStream.range(0, blocks).parallel()
+                .forEach(b -> tables.build(weights, b * BLOCK, Math.min(n, (b + 1) * BLOCK)));
+        return tables;
+    }
+
+    /**
+     * Draws an entry of v, with probability proportional to its weight.
+     */
+    int sample(int v, RandomGenerator rand) {
+        int first = offsets[v];
+        int entry = first + rand.nextInt(offsets[v + 1] - first);
+        return rand.nextDouble() < prob[entry] ? entry : alias[entry];
+    }
+
+    /**
+     * Vose's method for every vertex in [from, to). Scaled probabilities are kept in prob while
+     * the table is built, and the small and large work lists share one scratch array from both ends.
+     */
+    private void build(double[] weights, int from, int to) {
+        int maxDegree = 0;
+        for (int v = from; v < to; v++) {
+            maxDegree = Math.max(maxDegree, offsets[v + 1] - offsets[v]);
+        }
+        int[] work = new int[maxDegree];
+        for (int v = from; v < to; v++) {
+            int start = offsets[v];
+            int d = offsets[v + 1] - start;
+            if (d == 0) {
+                continue;
+            }
+            double total = 0;
+            for (int s = start; s < start + d; s++) {
+                total += weights[s];
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("vertex " + v + " has edges but no weight");
+            }
+            int small = 0;
+            int large = d;
+            for (int s = start; s < start + d; s++) {
+                prob[s] = weights[s] * d / total;
+                if (prob[s] < 1) {
+                    work[small++] = s;
+                } else {
+                    work[--large] = s;
+                }
+            }
+            while (small > 0 && large < d) {
+                int l = work[--small];
+                int g = work[large++];
+                alias[l] = g;
+                prob[g] = (prob[g] + prob[l]) - 1;
+                if (prob[g] < 1) {
+                    work[small++] = g;
+                } else {
+                    work[--large] = g;
+                }
+            }
+            // What is left is 1 up to rounding.
+            while (large < d) {
+                int g = work[large++];
+                prob[g] = 1;
+                alias[g] = g;
+            }
+            while (small > 0) {
+                int l = work[--small];
+                prob[l] = 1;
+                alias[l] = l;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bcalvario.coverTime;
+
+import java.util.List;
+
+/**
+ * Outcome of a configuration run with a time limit per run, see {@link ParallelExperimentRunner#runBounded}.
+ *
+ * @param result        Statistics over the runs that covered the graph within their limit.
+ * @param requeued      Number of times a run timed out and was queued again with a longer limit.
+ * @param abandonedRuns Indices of the runs that timed out on every attempt, in ascending order.
+ */
+public record BoundedResult(ExperimentResult result, int requeued, List<Integer> abandonedRuns) {
+
+    public int abandoned() {
+        return abandonedRuns.size();
+    }
+}
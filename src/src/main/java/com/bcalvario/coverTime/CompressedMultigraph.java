@@ -0,0 +1,186 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A multigraph stored as (neighbour, multiplicity) pairs instead of one slot per parallel edge.
+ * Vertex v has the distinct neighbours neighbors[start[v]] .. neighbors[start[v + 1] - 1] in
+ * ascending order. cumulative[j] counts the slots of v up to and including entry j, so the
+ * multiplicity of entry j is cumulative[j] minus that of the entry before it. Self-loops are an
+ * entry for v itself, and loops(v) counts them.
+ *
+ * It is the same graph as the {@link CsrGraph} it was built from, with slots grouped by
+ * neighbour. A uniform slot is found in O(log d) by binary search over the cumulative counts,
+ * or in O(1) with the optional alias tables. Both are exactly as likely to pick a neighbour as
+ * a uniform choice among its parallel edges. For dense multigraphs on few nodes, memory and
+ * searches then scale with the number of distinct neighbours instead of the number of edges.
+ */
+public final class CompressedMultigraph implements Adjacency {
+    private final int[] start;
+    private final int[] neighbors;
+    private final int[] cumulative;
+    private final int[] loops;
+    // null unless built with alias tables; entries weighted by multiplicity.
+    private final AliasTables tables;
+
+    private CompressedMultigraph(int[] start, int[] neighbors, int[] cumulative, int[] loops, boolean alias) {
+        this.start = start;
+        this.neighbors = neighbors;
+        this.cumulative = cumulative;
+        this.loops = loops;
+        this.tables = alias ? AliasTables.build(start, multiplicities()) : null;
+    }
+
+    /**
+     * Compresses graph, sampling by binary search.
+     */
+    public static CompressedMultigraph of(Adjacency graph) {
+        return of(graph, false);
+    }
+
+    /**
+     * Compresses graph.
+     * @param alias Whether to build alias tables for O(1) sampling, at 12 bytes per distinct neighbour.
+     */
+    public static CompressedMultigraph of(Adjacency graph, boolean alias) {
+        int n = graph.vertexCount();
+        int[] start = new int[n + 1];
+        int[] loops = new int[n];
+        int[] scratch = new int[0];
+        int[] neighbors = new int[16];
+        int[] cumulative = new int[16];
+        int entries = 0;
+        for (int v = 0; v < n; v++) {
+            int d = graph.degree(v);
+            if (scratch.length < d) {
+                scratch = new int[Math.max(d, 2 * scratch.length)];
+            }
+            for (int i = 0; i < d; i++) {
+                scratch[i] = graph.neighbor(v, i);
+            }
+            Arrays.sort(scratch, 0, d);
+            for (int i = 0; i < d; i++) {
+                int u = scratch[i];
+                if (u == v) {
+                    loops[v]++;
+                }
+                if (i > 0 && scratch[i - 1] == u) {
+                    cumulative[entries - 1]++;
+                    continue;
+                }
+                if (entries == neighbors.length) {
+                    neighbors = Arrays.copyOf(neighbors, 2 * entries);
+                    cumulative = Arrays.copyOf(cumulative, 2 * entries);
+                }
+                neighbors[entries] = u;
+                cumulative[entries] = i + 1;
+                entries++;
+            }
+            start[v + 1] = entries;
+        }
+        return new CompressedMultigraph(start, Arrays.copyOf(neighbors, entries), Arrays.copyOf(cumulative, entries),
+                loops, alias);
+    }
+
+    private double[] multiplicities() {
+        double[] m = new double[neighbors.length];
+        for (int v = 0; v + 1 < start.length; v++) {
+            for (int j = start[v]; j < start[v + 1]; j++) {
+                m[j] = j == start[v] ? cumulative[j] : cumulative[j] - cumulative[j - 1];
+            }
+        }
+        return m;
+    }
+
+    /**
+     * @return The node one step from v, each parallel edge equally likely.
+     */
+    public int sample(int v, RandomGenerator rand) {
+        if (tables != null) {
+            return neighbors[tables.sample(v, rand)];
+        }
+        return neighbor(v, rand.nextInt(degree(v)));
+    }
+
+    /**
+     * @return The number of distinct neighbours of v.
+     */
+    public int distinctDegree(int v) {
+        return start[v + 1] - start[v];
+    }
+
+    /**
+     * @return The number of self-loops at v.
+     */
+    public int loops(int v) {
+        return loops[v];
+    }
+
+    public boolean hasAliasTables() {
+        return tables != null;
+    }
+
+    @Override
+    public int vertexCount() {
+        return start.length - 1;
+    }
+
+    @Override
+    public int degree(int v) {
+        int last = start[v + 1] - 1;
+        return last < start[v] ? 0 : cumulative[last];
+    }
+
+    /**
+     * Slots are grouped by neighbour in ascending order, so the i-th slot is the first entry
+     * whose cumulative count exceeds i.
+     */
+    @Override
+    public int neighbor(int v, int i) {
+        return neighbors[entryOfSlot(v, i)];
+    }
+
+    @Override
+    public int multiplicity(int v, int u) {
+        int j = Arrays.binarySearch(neighbors, start[v], start[v + 1], u);
+        return j < 0 ? 0 : slotsBefore(v, j + 1) - slotsBefore(v, j);
+    }
+
+    /**
+     * The slots to u are contiguous, so leaving out the first 'skip' of them shifts every later
+     * slot down by skip.
+     */
+    @Override
+    public int neighborSkipping(int v, int u, int skip, int i) {
+        int j = Arrays.binarySearch(neighbors, start[v], start[v + 1], u);
+        if (j >= 0 && i >= slotsBefore(v, j)) {
+            i += skip;
+        }
+        return neighbor(v, i);
+    }
+
+    private int entryOfSlot(int v, int i) {
+        int lo = start[v];
+        int hi = start[v + 1] - 1;
+        if (i < 0 || hi < lo || i >= cumulative[hi]) {
+            throw new IndexOutOfBoundsException("slot " + i + " of vertex " + v);
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] > i) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return The number of slots of v in its entries before entry j.
+     */
+    private int slotsBefore(int v, int j) {
+        return j == start[v] ? 0 : cumulative[j - 1];
+    }
+}
@@ -0,0 +1,164 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * Connectivity checks on {@link Adjacency} graphs without boxing.
+ *
+ * The search is a BFS over an int[] queue with bitsets of reached and frontier vertices, about
+ * n / 4 bytes plus 4n for the queue. A {@link CsrGraph} is searched straight through its arrays.
+ * Any other adjacency, such as a {@link MappedGraph}, goes through the interface. A random
+ * multigraph with ten million vertices and twenty million edges is checked in well under a second.
+ *
+ * For edges that arrive one at a time, before any adjacency exists, use {@link UnionFind}.
+ */
+public final class Connectivity {
+    private Connectivity() {
+    }
+
+    /**
+     * Connected components of a graph.
+     *
+     * @param count  Number of components.
+     * @param labels Component of every vertex, numbered 0 .. count-1 in order of their smallest vertex.
+     * @param sizes  Number of vertices in every component.
+     */
+    public record Components(int count, int[] labels, int[] sizes) {
+
+        public boolean isConnected() {
+            return count <= 1;
+        }
+
+        /**
+         * @return Size of the largest component, 0 for an empty graph.
+         */
+        public int largest() {
+            int max = 0;
+            for (int s : sizes) {
+                max = Math.max(max, s);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * @return true if every vertex can be reached from every other; an empty graph counts as connected.
+     */
+    public static boolean isConnected(Adjacency g) {
+        int n = g.vertexCount();
+        if (n == 0) {
+            return true;
+        }
+        long[] seen = new long[(n + 63) >>> 6];
+        // Every reached vertex is enqueued exactly once, so the tail counts them.
+        return bfs(g, 0, seen, new long[seen.length], new int[n], 0) == n;
+    }
+
+    /**
+     * Splits the graph into its connected components.
+     */
+    public static Components components(Adjacency g) {
+        int n = g.vertexCount();
+        long[] seen = new long[(n + 63) >>> 6];
+        long[] frontier = new long[seen.length];
+        int[] queue = new int[n];
+        int[] labels = new int[n];
+        int[] sizes = new int[8];
+        int count = 0;
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            if ((seen[s >>> 6] & (1L << s)) != 0) {
+                continue;
+            }
+            // Each component is appended to the same queue right after the previous one.
+            int start = tail;
+            tail = bfs(g, s, seen, frontier, queue, tail);
+            for (int i = start; i < tail; i++) {
+                labels[queue[i]] = count;
+            }
+            if (count == sizes.length) {
+                sizes = Arrays.copyOf(sizes, 2 * count);
+            }
+            sizes[count++] = tail - start;
+        }
+        return new Components(count, labels, Arrays.copyOf(sizes, count));
+    }
+
+    /**
+     * Level-by-level BFS from source that appends every vertex it reaches to queue, starting at
+     * index tail.
+     *
+     * A small level is expanded in queue order. A large one is first marked in the frontier
+     * bitset and then expanded in vertex order, so the adjacency arrays are read front to back
+     * instead of at random. On big random graphs that is several times faster, because almost
+     * every random read would miss the cache. Long thin graphs, such as paths, never have a large
+     * level and so never pay for scanning the bitset.
+     * @param frontier All zero on entry, and all zero again on return.
+     * @return The new tail.
+     */
+    private static int bfs(Adjacency g, int source, long[] seen, long[] frontier, int[] queue, int tail) {
+        int[] offsets = null;
+        int[] targets = null;
+        if (g instanceof CsrGraph csr) {
+            offsets = csr.offsets();
+            targets = csr.targets();
+        }
+        // Below this many vertices a level costs less to expand in queue order than to scan for.
+        int sparseLevel = seen.length >>> 5;
+        seen[source >>> 6] |= 1L << source;
+        queue[tail++] = source;
+        int levelStart = tail - 1;
+        while (levelStart < tail) {
+            int levelEnd = tail;
+            if (levelEnd - levelStart <= sparseLevel) {
+                for (int h = levelStart; h < levelEnd; h++) {
+                    tail = expand(g, offsets, targets, queue[h], seen, queue, tail);
+                }
+            } else {
+                for (int h = levelStart; h < levelEnd; h++) {
+                    frontier[queue[h] >>> 6] |= 1L << queue[h];
+                }
+                for (int w = 0; w < frontier.length; w++) {
+                    long bits = frontier[w];
+                    if (bits == 0) {
+                        continue;
+                    }
+                    frontier[w] = 0;
+                    while (bits != 0) {
+                        int v = (w << 6) | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        tail = expand(g, offsets, targets, v, seen, queue, tail);
+                    }
+                }
+            }
+            levelStart = levelEnd;
+        }
+        return tail;
+    }
+
+    /**
+     * Enqueues the unseen neighbours of v, through the CSR arrays when there are any.
+     * @return The new tail.
+     */
+    private static int expand(Adjacency g, int[] offsets, int[] targets, int v, long[] seen, int[] queue, int tail) {
+        if (targets != null) {
+            for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) {
+                int u = targets[i];
+                if ((seen[u >>> 6] & (1L << u)) == 0) {
+                    seen[u >>> 6] |= 1L << u;
+                    queue[tail++] = u;
+                }
+            }
+            return tail;
+        }
+        int d = g.degree(v);
+        for (int i = 0; i < d; i++) {
+            int u = g.neighbor(v, i);
+            if ((seen[u >>> 6] & (1L << u)) == 0) {
+                seen[u >>> 6] |= 1L << u;
+                queue[tail++] = u;
+            }
+        }
+        return tail;
+    }
+}
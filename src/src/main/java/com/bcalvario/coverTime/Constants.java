@@ -14,4 +14,36 @@ public final class Constants {
     public static final int PREVIEW_MAX = 12;
 
     public static final int ANIMATION_DELAY = 400;
+    //preview: most steps of a walk traced for the animation, the replay ends there if the graph is not covered
+    public static final int ANIMATION_MAX_STEPS = 100_000;
+    //seed every per-run random stream is split from, same seed == same results on any machine
+    public static final long MASTER_SEED = 20250613L;
+    //worker threads used to spread the runs of a configuration
+    public static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    //adaptive mode: stop a configuration once its 95% CI half-width is within this fraction of the mean
+    public static final double TARGET_RELATIVE_CI = 0.05;
+    //adaptive mode: never spend more runs than this on a single configuration
+    public static final int MAX_RUNS_PER_CONFIG = 100_000;
+    //adaptive mode: runs scheduled together before convergence is checked again
+    public static final int ADAPTIVE_BATCH = 32;
+    //sweep mode: node counts to sweep, each with every edge count GraphUtil.cList offers
+    public static final int[] SWEEP_NODE_COUNTS = {10, 15, 20, 50, 100};
+    //sweep mode: largest number of runs in a single scheduled task
+    public static final int SWEEP_CHUNK_RUNS = 5;
+    //sweep mode: append-only log of finished runs; a restarted sweep skips everything already in it
+    public static final String SWEEP_RESULTS_FILE = "sweep-results.csv";
+    //pipelined mode: most generated graphs waiting to be walked, bounds memory
+    public static final int PIPELINE_QUEUE_CAPACITY = 256;
+    //Matthews cover-time bounds of the simple walk, averaged over the graphs of this many runs; 0 to skip
+    public static final int MATTHEWS_GRAPHS = 10;
+    //walkers mode: numbers of simultaneous walkers compared, the first is the baseline of the speedup
+    public static final int[] WALKER_COUNTS = {1, 2, 4, 8, 16};
+    //walkers mode: threads one multi-walker cover is split across; the runner already runs covers in parallel
+    public static final int WALKER_THREADS = 1;
+    //coverage mode: fractions of the nodes whose first full visit is timed; 1.0 is the cover time
+    public static final double[] COVERAGE_FRACTIONS = {0.5, 0.9, 0.99, 1.0};
+    //bounded mode: wall-clock milliseconds a run may take before it is re-queued with twice the time
+    public static final long RUN_TIMEOUT_MILLIS = 2_000;
+    //bounded mode: attempts a run gets before it is abandoned
+    public static final int RUN_ATTEMPTS = 3;
 }
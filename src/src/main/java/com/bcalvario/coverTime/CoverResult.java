@@ -0,0 +1,40 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Outcome of one walk that may have been stopped by its step budget or its {@link WalkControl}.
+ *
+ * @param steps       Steps taken, either until the graph was covered or until the walk stopped.
+ * @param visited     Number of distinct nodes visited, including the start node.
+ * @param vertexCount Number of nodes in the graph.
+ * @param outcome     Why the walk stopped.
+ */
+public record CoverResult(long steps, int visited, int vertexCount, Outcome outcome) {
+
+    /**
+     * Why a walk stopped.
+     */
+    public enum Outcome {
+        /** Every node was visited. */
+        COVERED,
+        /** The step budget ran out. */
+        STEP_LIMIT,
+        /** The walk's control was cancelled. */
+        CANCELLED,
+        /** The walk's control ran out of time. */
+        TIMED_OUT
+    }
+
+    /**
+     * A walk that either covered the graph or spent its step budget.
+     */
+    public CoverResult(long steps, int visited, int vertexCount) {
+        this(steps, visited, vertexCount, visited == vertexCount ? Outcome.COVERED : Outcome.STEP_LIMIT);
+    }
+
+    /**
+     * @return true if every node was visited, i.e. steps is the cover time and not a capped value.
+     */
+    public boolean covered() {
+        return visited == vertexCount;
+    }
+}
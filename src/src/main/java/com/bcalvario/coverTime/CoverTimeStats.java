@@ -0,0 +1,139 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Streaming statistics for the cover times of one configuration.
+ *
+ * Keeps count, mean and variance with Welford's method, the exact sum, min and max, and a
+ * {@link QuantileSketch} for percentiles. Nothing grows with the number of samples, and partial
+ * accumulators from parallel workers are combined with {@link #merge} (Chan et al.'s pairwise
+ * update), so results can be reduced up a fork-join tree.
+ */
+public final class CoverTimeStats {
+    // Student t 0.975 quantiles (two-sided 95%) for 1..30 degrees of freedom; larger df use a Cornish-Fisher expansion.
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+    private static final double Z_975 = 1.959964;
+
+    private long count;
+    private long sum;
+    private double mean;
+    private double m2;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    public void add(long coverTime) {
+        count++;
+        sum += coverTime;
+        double delta = coverTime - mean;
+        mean += delta / count;
+        m2 += delta * (coverTime - mean);
+        min = Math.min(min, coverTime);
+        max = Math.max(max, coverTime);
+        sketch.add(coverTime);
+    }
+
+    /**
+     * Folds another accumulator into this one, as if its samples had been added here.
+     */
+    public void merge(CoverTimeStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The exact sum of all samples; unlike the mean it does not depend on merge order.
+     */
+    public long sum() {
+        return sum;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return The unbiased sample variance.
+     */
+    public double variance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return The estimated q-quantile, clamped to the observed [min, max].
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return Math.min(Math.max(sketch.quantile(q), min), max);
+    }
+
+    /**
+     * @return Half-width of the 95% confidence interval of the mean, using Student's t.
+     */
+    public double ciHalfWidth95() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return t975(count - 1) * standardDeviation() / Math.sqrt(count);
+    }
+
+    /**
+     * @return The CI half-width as a fraction of the mean.
+     */
+    public double relativeCiHalfWidth95() {
+        return ciHalfWidth95() / mean();
+    }
+
+    /**
+     * @return The two-sided 95% Student t critical value for df degrees of freedom.
+     */
+    static double t975(long df) {
+        if (df <= T_975.length) {
+            return T_975[(int) df - 1];
+        }
+        // Cornish-Fisher expansion of the t quantile around the normal one, to the 1/df^3 term;
+        // within 2e-6 of the exact value past the end of the table.
+        double z = Z_975;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        double z7 = z5 * z * z;
+        double d = df;
+        return z + (z3 + z) / (4 * d) + (5 * z5 + 16 * z3 + 3 * z) / (96 * d * d)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * d * d * d);
+    }
+}
@@ -0,0 +1,131 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * Observes one walk at a time and records its coverage curve: the step at which every node was
+ * first visited and the steps at which given fractions of the nodes had been visited.
+ *
+ * Walk strategies call it only when they reach a node for the first time, so it costs nothing
+ * on the steps that revisit nodes. The first-visit array is kept between walks and only grows,
+ * so one recorder per thread can observe any number of walks without allocating.
+ */
+public final class CoverageRecorder {
+    /**
+     * Receives every milestone as the walk passes it.
+     */
+    @FunctionalInterface
+    public interface MilestoneListener {
+        /**
+         * @param fraction The milestone fraction.
+         * @param step     The step at which that fraction of the nodes had been visited.
+         */
+        void reached(double fraction, long step);
+    }
+
+    /** 50%, 90% and 99% coverage. */
+    public static final double[] DEFAULT_FRACTIONS = {0.5, 0.9, 0.99};
+
+    private final double[] fractions;
+    private final MilestoneListener listener;
+    private final int[] thresholds;
+    private final long[] milestoneSteps;
+    private long[] firstVisit = new long[0];
+    private int vertexCount;
+    private int next;
+
+    public CoverageRecorder() {
+        this(null, DEFAULT_FRACTIONS);
+    }
+
+    /**
+     * @param listener  Called at every milestone; may be null.
+     * @param fractions Coverage fractions in (0, 1], in any order.
+     */
+    public CoverageRecorder(MilestoneListener listener, double... fractions) {
+        this.fractions = fractions.clone();
+        Arrays.sort(this.fractions);
+        for (double f : this.fractions) {
+            if (!(f > 0 && f <= 1)) {
+                throw new IllegalArgumentException("coverage fraction " + f + " is not in (0, 1]");
+            }
+        }
+        this.listener = listener;
+        this.thresholds = new int[this.fractions.length];
+        this.milestoneSteps = new long[this.fractions.length];
+    }
+
+    /**
+     * Clears the previous walk and records the start node as visited at step 0.
+     */
+    void start(int n, int start) {
+        if (firstVisit.length < n) {
+            firstVisit = new long[Math.max(n, 2 * firstVisit.length)];
+        }
+        Arrays.fill(firstVisit, 0, n, -1);
+        Arrays.fill(milestoneSteps, -1);
+        vertexCount = n;
+        next = 0;
+        for (int i = 0; i < fractions.length; i++) {
+            // nextDown so that e.g. 0.99 * 100 needs 99 nodes even if the product rounds up.
+            thresholds[i] = (int) Math.ceil(Math.nextDown(fractions[i] * n));
+        }
+        if (n > 0) {
+            visit(start, 0, 1);
+        }
+    }
+
+    /**
+     * Records that v was first visited at the given step, as the visited-th distinct node.
+     */
+    void visit(int v, long step, int visited) {
+        firstVisit[v] = step;
+        while (next < thresholds.length && visited >= thresholds[next]) {
+            milestoneSteps[next] = step;
+            if (listener != null) {
+                listener.reached(fractions[next], step);
+            }
+            next++;
+        }
+    }
+
+    /**
+     * @return The number of nodes of the last walk.
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return The step at which v was first visited in the last walk, or -1 if it never was.
+     */
+    public long firstVisit(int v) {
+        return firstVisit[v];
+    }
+
+    /**
+     * @return The recorder's own first-visit array; entries 0 .. vertexCount() - 1 belong to the
+     * last walk. It is overwritten by the next walk.
+     */
+    public long[] firstVisits() {
+        return firstVisit;
+    }
+
+    public int milestoneCount() {
+        return fractions.length;
+    }
+
+    /**
+     * @return The i-th milestone fraction, in ascending order.
+     */
+    public double fraction(int i) {
+        return fractions[i];
+    }
+
+    /**
+     * @return The step at which the i-th fraction was reached in the last walk, or -1 if it was not.
+     */
+    public long milestoneStep(int i) {
+        return milestoneSteps[i];
+    }
+}
@@ -0,0 +1,146 @@
+package com.bcalvario.coverTime;
+
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.Pseudograph;
+
+import java.util.Arrays;
+
+/**
+ * A read-only compressed sparse row (CSR) snapshot of an undirected graph.
+ * The neighbours of vertex v are stored in targets[offsets[v]] .. targets[offsets[v + 1] - 1],
+ * so a walker can pick its next node with one array read and one bounded random draw
+ * instead of asking JGraphT for a fresh neighbour list on every step.
+ *
+ * Neighbours are listed in the same order and with the same multiplicity as
+ * {@link Graphs#neighborListOf(Graph, Object)}: a parallel edge appears once per copy and a
+ * self-loop appears once. A walk on the snapshot therefore makes exactly the same moves as a
+ * walk on the original graph when it is fed the same random numbers.
+ */
+public final class CsrGraph implements Adjacency {
+    private final int[] offsets;
+    private final int[] targets;
+    // Built on first use. EdgeIndexedGraph is immutable, so a racy double build is harmless.
+    private EdgeIndexedGraph edgeIndexed;
+
+    CsrGraph(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds a snapshot of a graph produced by {@link GraphUtil}.
+     * @param g A graph whose vertices are labelled 0 .. n-1.
+     * @return The CSR snapshot of g.
+     */
+    public static CsrGraph of(Graph<Integer, DefaultEdge> g) {
+        int n = g.vertexSet().size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (!g.containsVertex(v)) {
+                throw new IllegalArgumentException("vertices must be labelled 0.." + (n - 1) + ", missing " + v);
+            }
+            offsets[v + 1] = offsets[v] + g.edgesOf(v).size();
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int i = offsets[v];
+            for (DefaultEdge e : g.edgesOf(v)) {
+                targets[i++] = Graphs.getOppositeVertex(g, e, v);
+            }
+        }
+        return new CsrGraph(offsets, targets);
+    }
+
+    /**
+     * Builds a snapshot from an edge list, where edge i joins ends[2i] and ends[2i + 1].
+     * Each vertex lists its neighbours in edge order, so the result equals {@link #of} applied to
+     * a JGraphT graph that had the same edges added in the same order.
+     * @param n         Number of vertices.
+     * @param edgeCount Number of edges in ends to use.
+     */
+    public static CsrGraph fromEdges(int n, int[] ends, int edgeCount) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            int a = ends[2 * i];
+            int b = ends[2 * i + 1];
+            offsets[a + 1]++;
+            if (a != b) {
+                offsets[b + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            int a = ends[2 * i];
+            int b = ends[2 * i + 1];
+            targets[next[a]++] = b;
+            if (a != b) {
+                targets[next[b]++] = a;
+            }
+        }
+        return new CsrGraph(offsets, targets);
+    }
+
+    /**
+     * Materialises the snapshot as a JGraphT graph, for code that needs the object model such as
+     * {@link GraphPreview}. The experiments never call it. A {@link Pseudograph} holds both graph
+     * types; edges are added by smaller endpoint, so neighbour order can differ from the snapshot.
+     */
+    public Graph<Integer, DefaultEdge> toGraph() {
+        Graph<Integer, DefaultEdge> g = new Pseudograph<>(DefaultEdge.class);
+        int n = vertexCount();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                // Every edge shows up in the lists of both endpoints, a loop only once.
+                if (targets[i] >= v) {
+                    g.addEdge(v, targets[i]);
+                }
+            }
+        }
+        return g;
+    }
+
+    @Override
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    /**
+     * @return The edge-indexed form of this snapshot, built once and then reused.
+     */
+    public EdgeIndexedGraph edgeIndexed() {
+        EdgeIndexedGraph e = edgeIndexed;
+        if (e == null) {
+            e = EdgeIndexedGraph.of(this);
+            edgeIndexed = e;
+        }
+        return e;
+    }
+
+    // The raw arrays are shared with the walk strategies so their inner loops can index them directly.
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * A CSR adjacency in which every slot knows the id of its reverse slot.
+ * Slot s at vertex u pointing to v is paired with a slot r at v pointing back to u, so a
+ * walker that arrived over slot a can find the edge it came in on as reverse(a) in O(1).
+ * Parallel copies of an edge are paired one to one, and a self-loop (listed once, as in
+ * {@link CsrGraph}) is its own reverse.
+ *
+ * Within each vertex the slots are sorted by target, so all parallel copies of an edge sit in
+ * one contiguous run. Every slot also knows the first and one-past-last slot of its run, so
+ * all copies of an edge can be left out of a draw in O(1) however many there are.
+ */
+public final class EdgeIndexedGraph implements Adjacency {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverse;
+    private final int[] runStart;
+    private final int[] runEnd;
+
+    private EdgeIndexedGraph(int[] offsets, int[] targets, int[] reverse, int[] runStart, int[] runEnd) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.reverse = reverse;
+        this.runStart = runStart;
+        this.runEnd = runEnd;
+    }
+
+    /**
+     * Builds the edge-indexed form of an undirected CSR snapshot in O(m log d).
+     * Prefer {@link CsrGraph#edgeIndexed()}, which builds it once per snapshot.
+     */
+    public static EdgeIndexedGraph of(CsrGraph graph) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets().clone();
+        int[] targets = graph.targets().clone();
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(targets, offsets[v], offsets[v + 1]);
+        }
+        int[] reverse = new int[targets.length];
+        int[] runStart = new int[targets.length];
+        int[] runEnd = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            int s = offsets[u];
+            int end = offsets[u + 1];
+            while (s < end) {
+                int v = targets[s];
+                int next = s + 1;
+                while (next < end && targets[next] == v) {
+                    next++;
+                }
+                Arrays.fill(runStart, s, next, s);
+                Arrays.fill(runEnd, s, next, next);
+                if (v == u) {
+                    for (int i = s; i < next; i++) {
+                        reverse[i] = i;
+                    }
+                } else if (v > u) {
+                    // Pair the k-th copy of u -> v with the k-th copy of v -> u.
+                    int r = runStart(targets, offsets[v], offsets[v + 1], u);
+                    for (int i = s; i < next; i++, r++) {
+                        if (r >= offsets[v + 1] || targets[r] != u) {
+                            throw new IllegalArgumentException("graph is not undirected: edge " + u + "-" + v);
+                        }
+                        reverse[i] = r;
+                        reverse[r] = i;
+                    }
+                }
+                s = next;
+            }
+        }
+        return new EdgeIndexedGraph(offsets, targets, reverse, runStart, runEnd);
+    }
+
+    @Override
+    public int multiplicity(int v, int u) {
+        int start = runStart(targets, offsets[v], offsets[v + 1], u);
+        int end = start;
+        while (end < offsets[v + 1] && targets[end] == u) {
+            end++;
+        }
+        return end - start;
+    }
+
+    @Override
+    public int neighborSkipping(int v, int u, int skip, int i) {
+        int start = offsets[v];
+        int run = runStart(targets, start, offsets[v + 1], u);
+        return targets[start + i < run ? start + i : start + i + skip];
+    }
+
+    private static int runStart(int[] targets, int from, int to, int key) {
+        int i = Arrays.binarySearch(targets, from, to, key);
+        if (i < 0) {
+            return to;
+        }
+        while (i > from && targets[i - 1] == key) {
+            i--;
+        }
+        return i;
+    }
+
+    @Override
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    /**
+     * @return The slot at target(slot) that leads back along the same edge.
+     */
+    public int reverse(int slot) {
+        return reverse[slot];
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    int[] reverse() {
+        return reverse;
+    }
+
+    /**
+     * @return For every slot, the first slot of its run of parallel copies.
+     */
+    int[] runStart() {
+        return runStart;
+    }
+
+    /**
+     * @return For every slot, the slot after the last of its run of parallel copies.
+     */
+    int[] runEnd() {
+        return runEnd;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bcalvario.coverTime;
+
+/**
+ * One point of an experiment: a graph type and size walked with one strategy.
+ *
+ * @param type     Graph type to generate for every run.
+ * @param n        Number of nodes.
+ * @param c        Number of connections (edges).
+ * @param strategy Walk strategy whose cover time is measured.
+ */
+public record ExperimentConfig(GraphType type, int n, int c, WalkStrategy strategy) {
+
+    /**
+     * @return A stable identifier for the configuration, used to derive its seeds.
+     */
+    public String key() {
+        return type.name() + '/' + n + '/' + c + '/' + strategy.getName();
+    }
+}
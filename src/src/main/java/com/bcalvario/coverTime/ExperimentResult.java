@@ -0,0 +1,22 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Outcome of running one (GraphType, strategy) configuration.
+ *
+ * @param stats        Streaming statistics over the cover times of all runs.
+ * @param elapsedNanos Wall-clock time the runs took.
+ */
+public record ExperimentResult(CoverTimeStats stats, long elapsedNanos) {
+
+    public long runs() {
+        return stats.count();
+    }
+
+    public double averageCoverTime() {
+        return stats.mean();
+    }
+
+    public double runsPerSecond() {
+        return runs() / (elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A small, fast random number generator for the walk loops: xoshiro256++ by Blackman and Vigna,
+ * with Lemire's multiply-shift method for bounded ints.
+ *
+ * Unlike {@link java.util.Random} it keeps its state in plain fields, so a draw is a few shifts
+ * and adds with no atomic update of a shared seed. A bounded draw takes one 64-bit multiply and
+ * almost never a division, where Random rejects by modulo. It is not thread-safe: every thread
+ * (every run) must use its own instance, which {@link #split} provides.
+ *
+ * The period is 2^256 - 1 and the output passes BigCrush; it is not cryptographically secure.
+ */
+public final class FastRandom implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * Seeds the 256-bit state with four SplitMix64 outputs of seed, so nearby seeds still give
+     * unrelated streams and the state is never all zero.
+     */
+    public FastRandom(long seed) {
+        s0 = mix(seed += GOLDEN_GAMMA);
+        s1 = mix(seed += GOLDEN_GAMMA);
+        s2 = mix(seed += GOLDEN_GAMMA);
+        s3 = mix(seed + GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return A new generator seeded from this one's next output, for handing to another thread.
+     */
+    public FastRandom split() {
+        return new FastRandom(nextLong());
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s0 + s3, 23) + s0;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Lemire's method: the high half of a 32-bit random number times bound is uniform on
+     * [0, bound) once the few products whose low half falls below 2^32 mod bound are rejected.
+     * The modulo is only computed when the low half is below bound, which is rare for walk degrees.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // SplitMix64 finaliser, as in ParallelExperimentRunner.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
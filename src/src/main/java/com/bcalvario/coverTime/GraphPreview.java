@@ -1,6 +1,5 @@
 package com.bcalvario.coverTime;
 
-import com.bcalvario.coverTime.NonBacktrackingRandomWalk;
 import com.mxgraph.layout.mxCircleLayout;
 import com.mxgraph.model.mxICell;
 import com.mxgraph.swing.mxGraphComponent;
@@ -8,16 +7,17 @@ import com.mxgraph.util.mxConstants;
 import com.mxgraph.view.mxEdgeStyle;
 import com.mxgraph.view.mxStylesheet;
 import org.jgrapht.Graph;
-import org.jgrapht.Graphs;
 import org.jgrapht.ext.JGraphXAdapter;
 import org.jgrapht.graph.DefaultEdge;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * A utility class for visualizing graphs using JGraphX.
@@ -63,31 +63,8 @@ public final class GraphPreview {
     public static void animateTwoWalksSideBySide(
             Graph<Integer, DefaultEdge> g1, WalkStrategy s1, String title1,
             Graph<Integer, DefaultEdge> g2, WalkStrategy s2, String title2) {
-
-        JFrame mainFrame = new JFrame("Side-by-Side Comparison");
-        mainFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
-        mainFrame.setLayout(new GridLayout(1, 2)); // 1 row, 2 columns
-        //left panel
-        mxGraphComponent comp1 = createVisualComponent(g1);
-        JPanel panel1 = new JPanel(new BorderLayout());
-        panel1.add(new JLabel(title1, SwingConstants.CENTER), BorderLayout.NORTH);
-        panel1.add(comp1, BorderLayout.CENTER);
-        mainFrame.add(panel1);
-        //right
-        mxGraphComponent comp2 = createVisualComponent(g2);
-        JPanel panel2 = new JPanel(new BorderLayout());
-        panel2.add(new JLabel(title2, SwingConstants.CENTER), BorderLayout.NORTH);
-        panel2.add(comp2, BorderLayout.CENTER);
-        mainFrame.add(panel2);
-        //animation threads
-        JGraphXAdapter<Integer, DefaultEdge> vis1 = (JGraphXAdapter<Integer, DefaultEdge>) comp1.getGraph();
-        JGraphXAdapter<Integer, DefaultEdge> vis2 = (JGraphXAdapter<Integer, DefaultEdge>) comp2.getGraph();
-        new Thread(() -> runAnimation(g1, s1, vis1, comp1)).start();
-        new Thread(() -> runAnimation(g2, s2, vis2, comp2)).start();
-        mainFrame.setPreferredSize(new Dimension(1600, 800));
-        mainFrame.pack();
-        mainFrame.setLocationByPlatform(true);
-        mainFrame.setVisible(true);
+        animate("Side-by-Side Comparison", 1, 2, new Dimension(1600, 800),
+                List.of(g1, g2), List.of(s1, s2), List.of(title1, title2));
     }
 
     /**
@@ -100,35 +77,119 @@ public final class GraphPreview {
             Graph<Integer, DefaultEdge> g3, WalkStrategy s3, String title3, // Bottom-left
             Graph<Integer, DefaultEdge> g4, WalkStrategy s4, String title4  // Bottom-right
     ) {
-        JFrame mainFrame = new JFrame("2x2 Comparison of Graph Types and Walk Strategies");
-        mainFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
-        mainFrame.setLayout(new GridLayout(2, 2)); // 2 rows, 2 columns
-
-        //create/add the four panels
-        Object[][] configs = {
-                {g1, s1, title1}, {g2, s2, title2},
-                {g3, s3, title3}, {g4, s4, title4}
-        };
-
-        for (Object[] config : configs) {
-            Graph<Integer, DefaultEdge> g = (Graph<Integer, DefaultEdge>) config[0];
-            WalkStrategy s = (WalkStrategy) config[1];
-            String title = (String) config[2];
-
-            mxGraphComponent comp = createVisualComponent(g);
-            JPanel panel = new JPanel(new BorderLayout());
-            panel.add(new JLabel(title, SwingConstants.CENTER), BorderLayout.NORTH);
-            panel.add(comp, BorderLayout.CENTER);
-            mainFrame.add(panel);
-
-            JGraphXAdapter<Integer, DefaultEdge> vis = (JGraphXAdapter<Integer, DefaultEdge>) comp.getGraph();
-            new Thread(() -> runAnimation(g, s, vis, comp)).start();
+        animate("2x2 Comparison of Graph Types and Walk Strategies", 2, 2, new Dimension(1600, 1600),
+                List.of(g1, g2, g3, g4), List.of(s1, s2, s3, s4), List.of(title1, title2, title3, title4));
+    }
+
+    /**
+     * Walks every graph once, recording a {@link WalkTrace}, then opens a window that replays
+     * the traces in a grid of panels. The walks are done before the window opens, so any
+     * strategy can be shown and the replay only restyles cells. One Swing timer on the event
+     * thread advances all panels together, under a shared play button, speed and seek slider.
+     */
+    private static void animate(String windowTitle, int rows, int columns, Dimension size,
+                                List<Graph<Integer, DefaultEdge>> graphs, List<WalkStrategy> strategies,
+                                List<String> titles) {
+        FastRandom rand = new FastRandom(Constants.MASTER_SEED);
+        List<WalkTrace> traces = new ArrayList<>();
+        for (int i = 0; i < graphs.size(); i++) {
+            CsrGraph csr = CsrGraph.of(graphs.get(i));
+            int n = csr.vertexCount();
+            traces.add(n == 0 ? null
+                    : strategies.get(i).trace(csr, rand.nextInt(n), rand, Constants.ANIMATION_MAX_STEPS));
+        }
+        SwingUtilities.invokeLater(() -> {
+            JFrame mainFrame = new JFrame(windowTitle);
+            mainFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            JPanel grid = new JPanel(new GridLayout(rows, columns));
+            List<TraceReplay> replays = new ArrayList<>();
+            for (int i = 0; i < graphs.size(); i++) {
+                mxGraphComponent comp = createVisualComponent(graphs.get(i));
+                JPanel panel = new JPanel(new BorderLayout());
+                panel.add(new JLabel(titles.get(i), SwingConstants.CENTER), BorderLayout.NORTH);
+                panel.add(comp, BorderLayout.CENTER);
+                grid.add(panel);
+                if (traces.get(i) != null) {
+                    replays.add(new TraceReplay(adapterOf(comp), traces.get(i)));
+                }
+            }
+            mainFrame.setLayout(new BorderLayout());
+            mainFrame.add(grid, BorderLayout.CENTER);
+            mainFrame.add(createReplayControls(mainFrame, replays), BorderLayout.SOUTH);
+            mainFrame.setPreferredSize(size);
+            mainFrame.pack();
+            mainFrame.setLocationByPlatform(true);
+            mainFrame.setVisible(true);
+        });
+    }
+
+    /**
+     * Builds the play button, speed slider and seek slider shared by all replays, and the timer
+     * that drives them. The timer stops when the longest trace ends or the window is closed.
+     */
+    private static JPanel createReplayControls(JFrame frame, List<TraceReplay> replays) {
+        int lastFrame = 0;
+        for (TraceReplay replay : replays) {
+            lastFrame = Math.max(lastFrame, replay.lastFrame());
+        }
+        int end = lastFrame;
+        JButton play = new JButton("Pause");
+        JSlider speed = new JSlider(1, 100, Math.max(1, 1000 / Constants.ANIMATION_DELAY));
+        JSlider seek = new JSlider(0, end, 0);
+        JLabel step = new JLabel();
+        Timer timer = new Timer(Constants.ANIMATION_DELAY, null);
+
+        // The slider is the position of the replay, both when the timer moves it and when it is dragged.
+        seek.addChangeListener(e -> {
+            for (TraceReplay replay : replays) {
+                replay.show(seek.getValue());
+            }
+            step.setText("Step " + seek.getValue() + " / " + end);
+        });
+        timer.addActionListener(e -> {
+            if (seek.getValue() >= end) {
+                timer.stop();
+                play.setText("Play");
+            } else {
+                seek.setValue(seek.getValue() + 1);
+            }
+        });
+        play.addActionListener(e -> {
+            if (timer.isRunning()) {
+                timer.stop();
+                play.setText("Play");
+            } else {
+                if (seek.getValue() >= end) {
+                    seek.setValue(0);
+                }
+                timer.start();
+                play.setText("Pause");
+            }
+        });
+        speed.addChangeListener(e -> timer.setDelay(1000 / speed.getValue()));
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                timer.stop();
+            }
+        });
+
+        for (TraceReplay replay : replays) {
+            replay.show(0);
         }
+        step.setText("Step 0 / " + end);
+        timer.setDelay(1000 / speed.getValue());
+        timer.start();
 
-        mainFrame.setPreferredSize(new Dimension(1600, 1600));
-        mainFrame.pack();
-        mainFrame.setLocationByPlatform(true);
-        mainFrame.setVisible(true);
+        JPanel controls = new JPanel(new BorderLayout());
+        JPanel left = new JPanel();
+        left.add(play);
+        left.add(new JLabel("Steps/s"));
+        left.add(speed);
+        controls.add(left, BorderLayout.WEST);
+        controls.add(seek, BorderLayout.CENTER);
+        controls.add(step, BorderLayout.EAST);
+        return controls;
     }
 
     /**
@@ -148,6 +209,15 @@ public final class GraphPreview {
         return comp;
     }
 
+    /**
+     * @return The adapter shown by a component made by {@link #createVisualComponent}.
+     */
+    @SuppressWarnings("unchecked")
+    private static JGraphXAdapter<Integer, DefaultEdge> adapterOf(mxGraphComponent comp) {
+        // createVisualComponent builds every component on a JGraphXAdapter<Integer, DefaultEdge>.
+        return (JGraphXAdapter<Integer, DefaultEdge>) comp.getGraph();
+    }
+
     /**
      * Applies visual styles and layout to a JGraphX adapter.
      */
@@ -175,62 +245,85 @@ public final class GraphPreview {
     }
 
     /**
-     * Helper method that runs the animation logic for a single graph panel.
+     * Shows a {@link WalkTrace} on one graph panel, one frame at a time. Moving one frame
+     * forward restyles only the cells the walkers leave and enter; any other jump restyles
+     * every node from the first frame it was reached in. All restyling of a frame is one model
+     * update, so the panel repaints once per frame. Must be used on the event thread.
      */
-    private static void runAnimation(Graph<Integer, DefaultEdge> g, WalkStrategy strategy,
-                                     JGraphXAdapter<Integer, DefaultEdge> vis, mxGraphComponent comp) {
-        // Style Definitions for Animation
-        mxStylesheet stylesheet = vis.getStylesheet();
-        Map<String, Object> visitedStyle = new HashMap<>();
-        visitedStyle.put(mxConstants.STYLE_FILLCOLOR, "#85C1E9"); // Light Blue for visited
-        stylesheet.putCellStyle("VISITED", visitedStyle);
-        Map<String, Object> currentStyle = new HashMap<>();
-        currentStyle.put(mxConstants.STYLE_FILLCOLOR, "#F1C40F"); // Yellow for current
-        stylesheet.putCellStyle("CURRENT", currentStyle);
-
-        // Animation Logic
-        Random rand = new Random();
-        int n = g.vertexSet().size();
-        if (n <= 1) return;
-
-        Map<Integer, mxICell> vertexToCellMap = vis.getVertexToCellMap();
-        boolean[] seen = new boolean[n];
-        int visited = 0;
-        int previous = -1;
-        int current = rand.nextInt(n);
-
-        while (visited < n) {
-            if (!seen[current]) {
-                seen[current] = true;
-                visited++;
-            }
-            vis.setCellStyle("CURRENT", new Object[]{vertexToCellMap.get(current)});
-            comp.refresh();
-            try {
-                Thread.sleep(Constants.ANIMATION_DELAY);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
+    private static final class TraceReplay {
+        private final JGraphXAdapter<Integer, DefaultEdge> vis;
+        private final WalkTrace trace;
+        // Cell of every vertex, by vertex id.
+        private final Object[] cells;
+        private final int[] firstFrames;
+        private final Object[] current;
+        // Frame on screen, -1 before the first.
+        private int shown = -1;
+
+        TraceReplay(JGraphXAdapter<Integer, DefaultEdge> vis, WalkTrace trace) {
+            this.vis = vis;
+            this.trace = trace;
+            Map<Integer, mxICell> vertexToCellMap = vis.getVertexToCellMap();
+            cells = new Object[trace.vertexCount()];
+            for (int v = 0; v < cells.length; v++) {
+                cells[v] = vertexToCellMap.get(v);
             }
-            vis.setCellStyle("VISITED", new Object[]{vertexToCellMap.get(current)});
+            firstFrames = trace.firstFrames();
+            current = new Object[trace.walkers()];
 
-            List<Integer> neighbors = Graphs.neighborListOf(g, current);
-            if (neighbors.isEmpty()) break;
+            // Style Definitions for Animation
+            mxStylesheet stylesheet = vis.getStylesheet();
+            Map<String, Object> visitedStyle = new HashMap<>();
+            visitedStyle.put(mxConstants.STYLE_FILLCOLOR, "#85C1E9"); // Light Blue for visited
+            stylesheet.putCellStyle("VISITED", visitedStyle);
+            Map<String, Object> currentStyle = new HashMap<>();
+            currentStyle.put(mxConstants.STYLE_FILLCOLOR, "#F1C40F"); // Yellow for current
+            stylesheet.putCellStyle("CURRENT", currentStyle);
+        }
 
-            if (strategy instanceof NonBacktrackingRandomWalk && neighbors.size() > 1 && previous != -1) {
-                neighbors.remove(Integer.valueOf(previous));
-            }
-            previous = current;
-            current = neighbors.get(rand.nextInt(neighbors.size()));
+        int lastFrame() {
+            return trace.frames() - 1;
         }
 
-        // Final styling to show completion
-        if (vertexToCellMap.get(previous) != null) {
-            vis.setCellStyle("VISITED", new Object[]{vertexToCellMap.get(previous)});
+        /**
+         * Shows the given frame, or the last one if the trace is shorter.
+         */
+        void show(int frame) {
+            frame = Math.min(frame, lastFrame());
+            if (frame == shown) {
+                return;
+            }
+            vis.getModel().beginUpdate();
+            try {
+                if (shown >= 0 && frame == shown + 1) {
+                    // Every node a walker leaves has been visited.
+                    vis.setCellStyle("VISITED", current);
+                } else {
+                    restyleAll(frame);
+                }
+                for (int w = 0; w < current.length; w++) {
+                    current[w] = cells[trace.position(frame, w)];
+                }
+                vis.setCellStyle("CURRENT", current);
+            } finally {
+                vis.getModel().endUpdate();
+            }
+            shown = frame;
         }
-        if (vertexToCellMap.get(current) != null) {
-            vis.setCellStyle("CURRENT", new Object[]{vertexToCellMap.get(current)});
+
+        private void restyleAll(int frame) {
+            List<Object> visited = new ArrayList<>();
+            List<Object> unvisited = new ArrayList<>();
+            for (int v = 0; v < cells.length; v++) {
+                int first = firstFrames[v];
+                if (first >= 0 && first <= frame) {
+                    visited.add(cells[v]);
+                } else {
+                    unvisited.add(cells[v]);
+                }
+            }
+            vis.setCellStyle("VISITED", visited.toArray());
+            vis.setCellStyle(null, unvisited.toArray());
         }
-        comp.refresh();
     }
-}
\ No newline at end of file
+}
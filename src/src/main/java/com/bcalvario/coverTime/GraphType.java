@@ -1,5 +1,10 @@
 package com.bcalvario.coverTime;
 
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+
+import java.util.random.RandomGenerator;
+
 /**
  * Enum to define the type of graphs
  * simple = graph with no self loops or parallel edges
@@ -8,6 +13,39 @@ package com.bcalvario.coverTime;
  * @author Brandon Calvario
  */
 public enum GraphType {
-    SIMPLE,
-    MULTIGRAPH
+    SIMPLE("Simple Graph"),
+    MULTIGRAPH("Multigraph");
+
+    private final String label;
+
+    GraphType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return The name printed in result tables.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Generates a connected random graph of this type with the matching {@link GraphUtil} generator.
+     */
+    public Graph<Integer, DefaultEdge> generate(int n, int c, RandomGenerator rng) {
+        return switch (this) {
+            case SIMPLE -> GraphUtil.connectedRandomSimpleGraph(n, c, rng);
+            case MULTIGRAPH -> GraphUtil.connectedRandomMultigraph(n, c, rng);
+        };
+    }
+
+    /**
+     * Generates the same graph as {@link #generate} directly as a {@link CsrGraph}, with no JGraphT objects.
+     */
+    public CsrGraph generateCsr(int n, int c, RandomGenerator rng) {
+        return switch (this) {
+            case SIMPLE -> GraphUtil.connectedRandomSimpleCsr(n, c, rng);
+            case MULTIGRAPH -> GraphUtil.connectedRandomMultigraphCsr(n, c, rng);
+        };
+    }
 }
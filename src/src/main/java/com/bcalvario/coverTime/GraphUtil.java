@@ -1,12 +1,12 @@
 package com.bcalvario.coverTime;
 
 import org.jgrapht.Graph;
-import org.jgrapht.Graphs;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.Pseudograph;
 import org.jgrapht.graph.SimpleGraph;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -18,6 +18,9 @@ import java.util.stream.IntStream;
  * @author Brandon Calvario
  */
 public final class GraphUtil {
+    // Above this fraction of all vertex pairs, simple graphs get their extra edges by exact sampling.
+    private static final double EXACT_SAMPLING_DENSITY = 0.5;
+
     private GraphUtil() {
     }
 
@@ -34,25 +37,19 @@ public final class GraphUtil {
      * Checks if a graph is connected using a Breadth-First Search (BFS) algorithm.
      * As discussed in the presentation, a graph must be connected for the cover time
      * to be finite. This method validates that prerequisite.
+     * The graph is snapshotted and searched by {@link Connectivity}, so no vertex is boxed.
+     * @param n Expected number of vertices; the graph must be labelled 0 .. n-1.
      */
     public static boolean isConnected(Graph<Integer, DefaultEdge> g, int n) {
-        Set<Integer> seen = new HashSet<>();
-        Deque<Integer> q = new ArrayDeque<>();
-        // Start the BFS from an arbitrary node (e.g., node 0).
-        seen.add(0);
-        q.add(0);
-        while (!q.isEmpty()) {
-            int v = q.removeFirst();
-            // Visit all neighbors of the current node.
-            for (DefaultEdge e : g.edgesOf(v)) {
-                int u = Graphs.getOppositeVertex(g, e, v);
-                if (seen.add(u)) { // If 'u' has not been seen before
-                    q.addLast(u); // Add it to the queue to visit later.
-                }
-            }
-        }
-        // If the number of nodes visited equals the total number of nodes, the graph is connected.
-        return seen.size() == n;
+        return g.vertexSet().size() == n && Connectivity.isConnected(CsrGraph.of(g));
+    }
+
+    /**
+     * Checks connectivity of any {@link Adjacency}, including an off-heap {@link MappedGraph}.
+     * @see Connectivity#isConnected(Adjacency)
+     */
+    public static boolean isConnected(Adjacency g) {
+        return Connectivity.isConnected(g);
     }
 
     /**
@@ -65,13 +62,13 @@ public final class GraphUtil {
      * @param rng Random number generator.
      * @return A connected random multigraph.
      */
-    public static Graph<Integer, DefaultEdge> connectedRandomMultigraph(int n, int c, Random rng) {
+    public static Graph<Integer, DefaultEdge> connectedRandomMultigraph(int n, int c, RandomGenerator rng) {
         Graph<Integer, DefaultEdge> g = new Pseudograph<>(DefaultEdge.class);
         IntStream.range(0, n).forEach(g::addVertex);
         // create a spanning tree to ensure connectivity (N-1 edges)
         // This is a common algorithm for generating connected random graphs.
         List<Integer> verts = IntStream.range(0, n).boxed().collect(Collectors.toList());
-        Collections.shuffle(verts, rng); // Randomize vertex order to ensure randomness.
+        shuffle(verts, rng); // Randomize vertex order to ensure randomness.
         for (int i = 1; i < n; i++) {
             int u = verts.get(i);
             int v = verts.get(rng.nextInt(i)); // Connect to a random, previously-added vertex.
@@ -95,22 +92,28 @@ public final class GraphUtil {
      * @param rng Random number generator.
      * @return A connected random simple graph.
      */
-    public static Graph<Integer, DefaultEdge> connectedRandomSimpleGraph(int n, int c, Random rng) {
+    public static Graph<Integer, DefaultEdge> connectedRandomSimpleGraph(int n, int c, RandomGenerator rng) {
         Graph<Integer, DefaultEdge> g = new SimpleGraph<>(DefaultEdge.class);
         IntStream.range(0, n).forEach(g::addVertex);
 
         // Create a spanning tree
         List<Integer> verts = new ArrayList<>(IntStream.range(0, n).boxed().toList());
-        Collections.shuffle(verts, rng);
+        shuffle(verts, rng);
+        long[] treeRanks = new long[Math.max(0, n - 1)];
         for (int i = 1; i < n; i++) {
             int u = verts.get(i);
             int v = verts.get(rng.nextInt(i));
             g.addEdge(u, v);
+            treeRanks[i - 1] = pairRank(n, u, v);
         }
         // Cap the number of edges at the maximum possible for a simple graph.
-        int maxEdges = n * (n - 1) / 2;
-        if (c > maxEdges) {
-            c = maxEdges;
+        long maxEdges = (long) n * (n - 1) / 2;
+        c = (int) Math.min(c, maxEdges);
+        // Near the complete graph almost every draw below is rejected, so dense graphs
+        // pick their remaining edges directly instead.
+        if (c > EXACT_SAMPLING_DENSITY * maxEdges) {
+            addUniformFreeEdges(g, n, treeRanks, c - g.edgeSet().size(), rng);
+            return g;
         }
         // Add remaining edges randomly, avoiding self-loops and duplicates ---
         while (g.edgeSet().size() < c) {
@@ -125,4 +128,253 @@ public final class GraphUtil {
         }
         return g;
     }
+
+    /**
+     * Adds k edges chosen uniformly among the vertex pairs the spanning tree does not use.
+     * Every k-subset of the free pairs is equally likely, exactly as with the rejection loop,
+     * but the work is O(k log k) however close the graph gets to complete.
+     */
+    private static void addUniformFreeEdges(Graph<Integer, DefaultEdge> g, int n, long[] treeRanks, int k,
+                                            RandomGenerator rng) {
+        int[] ends = uniformFreeEdges(n, treeRanks, k, rng);
+        for (int i = 0; i < ends.length; i += 2) {
+            g.addEdge(ends[i], ends[i + 1]);
+        }
+    }
+
+    /**
+     * Picks k edges uniformly among the vertex pairs not in treeRanks (which gets sorted).
+     * @return The endpoints, edge i joining entries 2i and 2i + 1, in increasing pair rank.
+     */
+    private static int[] uniformFreeEdges(int n, long[] treeRanks, int k, RandomGenerator rng) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        Arrays.sort(treeRanks);
+        long[] ranks = sampleFreePairRanks(n, treeRanks, k, rng);
+        int[] ends = new int[2 * k];
+        // Ranks come back sorted, so the row u only ever moves forward.
+        int u = 0;
+        long rowStart = 0;
+        for (int i = 0; i < k; i++) {
+            long r = ranks[i];
+            while (r >= rowStart + (n - 1 - u)) {
+                rowStart += n - 1 - u;
+                u++;
+            }
+            ends[2 * i] = u;
+            ends[2 * i + 1] = (int) (u + 1 + (r - rowStart));
+        }
+        return ends;
+    }
+
+    /**
+     * Same graph as {@link #connectedRandomMultigraph}, written straight into a {@link CsrGraph}.
+     * It draws the same random numbers in the same order and lists neighbours in edge order, so
+     * for a given seed the result equals CsrGraph.of(connectedRandomMultigraph(n, c, rng)),
+     * without creating a boxed vertex or an edge object.
+     * @param n Number of nodes (vertices).
+     * @param c Number of connections (edges).
+     * @param rng Random number generator.
+     * @return A connected random multigraph.
+     */
+    public static CsrGraph connectedRandomMultigraphCsr(int n, int c, RandomGenerator rng) {
+        int[] ends = new int[2 * Math.max(c, n - 1)];
+        int edges = spanningTree(n, rng, ends);
+        while (edges < c) {
+            ends[2 * edges] = rng.nextInt(n);
+            ends[2 * edges + 1] = rng.nextInt(n);
+            edges++;
+        }
+        return CsrGraph.fromEdges(n, ends, edges);
+    }
+
+    /**
+     * A random multigraph grown without a spanning tree: edges between two uniformly random nodes,
+     * self-loops included as in {@link #connectedRandomMultigraphCsr}, are added until there are at
+     * least c of them and the graph is connected. A {@link UnionFind} tracks the components as the
+     * edges arrive, so connectivity is never searched for. The edge count is not fixed: connecting
+     * n nodes takes about n ln(n) / 2 edges, so a smaller c gives a graph with more edges.
+     * @param n Number of nodes, at least 1.
+     * @param c Least number of connections (edges).
+     * @param rng Random number generator.
+     * @return A connected random multigraph with at least c edges.
+     */
+    public static CsrGraph randomMultigraphUntilConnectedCsr(int n, int c, RandomGenerator rng) {
+        if (n < 1) {
+            throw new IllegalArgumentException("need at least one node, got " + n);
+        }
+        UnionFind components = new UnionFind(n);
+        int[] ends = new int[2 * Math.max(c, n)];
+        int edges = 0;
+        while (edges < c || !components.isConnected()) {
+            if (2 * edges == ends.length) {
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+            }
+            int u = rng.nextInt(n);
+            int v = rng.nextInt(n);
+            components.union(u, v);
+            ends[2 * edges] = u;
+            ends[2 * edges + 1] = v;
+            edges++;
+        }
+        return CsrGraph.fromEdges(n, ends, edges);
+    }
+
+    /**
+     * Same graph as {@link #connectedRandomSimpleGraph}, written straight into a {@link CsrGraph}.
+     * Duplicates are rejected with a primitive set of pair ranks instead of JGraphT's edge lookup;
+     * the random draws and the neighbour order are the same, so for a given seed the result equals
+     * CsrGraph.of(connectedRandomSimpleGraph(n, c, rng)).
+     * @param n Number of nodes.
+     * @param c Number of connections (edges).
+     * @param rng Random number generator.
+     * @return A connected random simple graph.
+     */
+    public static CsrGraph connectedRandomSimpleCsr(int n, int c, RandomGenerator rng) {
+        long maxEdges = (long) n * (n - 1) / 2;
+        c = (int) Math.min(c, maxEdges);
+        int[] ends = new int[2 * Math.max(c, n - 1)];
+        int edges = spanningTree(n, rng, ends);
+        long[] treeRanks = new long[edges];
+        for (int i = 0; i < edges; i++) {
+            treeRanks[i] = pairRank(n, ends[2 * i], ends[2 * i + 1]);
+        }
+        if (c > EXACT_SAMPLING_DENSITY * maxEdges) {
+            int[] extra = uniformFreeEdges(n, treeRanks, c - edges, rng);
+            System.arraycopy(extra, 0, ends, 2 * edges, extra.length);
+            return CsrGraph.fromEdges(n, ends, edges + extra.length / 2);
+        }
+        LongHashSet used = new LongHashSet(c);
+        for (long r : treeRanks) {
+            used.add(r);
+        }
+        while (edges < c) {
+            int u = rng.nextInt(n);
+            int v = rng.nextInt(n);
+            if (u != v && used.add(pairRank(n, u, v))) {
+                ends[2 * edges] = u;
+                ends[2 * edges + 1] = v;
+                edges++;
+            }
+        }
+        return CsrGraph.fromEdges(n, ends, edges);
+    }
+
+    /**
+     * Generates a connected random graph of the given type and gives every edge a weight drawn
+     * uniformly from [minWeight, maxWeight). The graph is the one {@link GraphType#generateCsr}
+     * draws for the same rng; the weights are drawn after it.
+     * @param minWeight Smallest weight; must be at least 0.
+     * @param maxWeight Bound on the weights; must be more than minWeight.
+     * @return A connected random graph with alias tables for weighted walks.
+     */
+    public static WeightedCsrGraph connectedRandomWeightedCsr(GraphType type, int n, int c, double minWeight,
+                                                             double maxWeight, RandomGenerator rng) {
+        if (!(minWeight >= 0 && maxWeight > minWeight)) {
+            throw new IllegalArgumentException("invalid weight range [" + minWeight + ", " + maxWeight + ")");
+        }
+        CsrGraph graph = type.generateCsr(n, c, rng);
+        return WeightedCsrGraph.of(graph, () -> minWeight + (maxWeight - minWeight) * rng.nextDouble());
+    }
+
+    /**
+     * Fisher-Yates shuffle with the same swaps as Collections.shuffle on a random-access list,
+     * which before Java 21 only accepts a java.util.Random. With a Random it gives the same order.
+     */
+    private static void shuffle(List<Integer> list, RandomGenerator rng) {
+        for (int i = list.size(); i > 1; i--) {
+            Collections.swap(list, i - 1, rng.nextInt(i));
+        }
+    }
+
+    /**
+     * Writes the random spanning tree both generators start from into ends, drawing exactly
+     * what shuffle and the tree loop of the JGraphT generators draw.
+     * @return The number of tree edges, n - 1 (0 for an empty graph).
+     */
+    private static int spanningTree(int n, RandomGenerator rng, int[] ends) {
+        int[] verts = new int[n];
+        for (int i = 0; i < n; i++) {
+            verts[i] = i;
+        }
+        // The swap sequence of shuffle(List, RandomGenerator).
+        for (int i = n; i > 1; i--) {
+            int j = rng.nextInt(i);
+            int t = verts[i - 1];
+            verts[i - 1] = verts[j];
+            verts[j] = t;
+        }
+        for (int i = 1; i < n; i++) {
+            ends[2 * (i - 1)] = verts[i];
+            ends[2 * (i - 1) + 1] = verts[rng.nextInt(i)];
+        }
+        return Math.max(0, n - 1);
+    }
+
+    /**
+     * Rank of the pair {u, v} among all n(n-1)/2 pairs, ordered by smaller then larger endpoint.
+     */
+    static long pairRank(int n, int u, int v) {
+        long a = Math.min(u, v);
+        long b = Math.max(u, v);
+        return a * (2L * n - a - 1) / 2 + (b - a - 1);
+    }
+
+    /**
+     * Draws k distinct pair ranks uniformly from the pairs not in excluded.
+     * Up to half of the free pairs, Floyd's algorithm samples the k free-pair indices directly.
+     * Above that it samples the free pairs to leave out and takes the rest, so the work stays
+     * proportional to k either way.
+     * @param excluded Sorted ranks of the pairs already used.
+     * @return The sampled ranks, sorted.
+     */
+    static long[] sampleFreePairRanks(int n, long[] excluded, int k, RandomGenerator rng) {
+        long free = (long) n * (n - 1) / 2 - excluded.length;
+        if (k > free) {
+            throw new IllegalArgumentException("only " + free + " free pairs, cannot pick " + k);
+        }
+        long[] picked;
+        if (k <= free / 2) {
+            picked = floydSample(free, k, rng);
+        } else {
+            long[] left = floydSample(free, (int) (free - k), rng);
+            picked = new long[k];
+            int s = 0;
+            int j = 0;
+            for (long idx = 0; idx < free; idx++) {
+                if (s < left.length && left[s] == idx) {
+                    s++;
+                } else {
+                    picked[j++] = idx;
+                }
+            }
+        }
+        // The i-th free pair sits after every excluded rank at or below it: shift it past them.
+        int t = 0;
+        for (int i = 0; i < k; i++) {
+            while (t < excluded.length && excluded[t] <= picked[i] + t) {
+                t++;
+            }
+            picked[i] += t;
+        }
+        return picked;
+    }
+
+    /**
+     * Floyd's algorithm: m distinct values uniform over [0, range), in m draws, returned sorted.
+     */
+    private static long[] floydSample(long range, int m, RandomGenerator rng) {
+        LongHashSet set = new LongHashSet(m);
+        for (long j = range - m; j < range; j++) {
+            long t = rng.nextLong(j + 1);
+            if (!set.add(t)) {
+                // t was taken before; j itself cannot have been, since earlier draws are below j.
+                set.add(j);
+            }
+        }
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        return values;
+    }
 }
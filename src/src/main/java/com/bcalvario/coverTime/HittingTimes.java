@@ -0,0 +1,248 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Exact expected hitting times of the simple random walk, for checking simulated cover times.
+ *
+ * The hitting times h(v) = H(v, t) of a target t solve h(t) = 0 and, for v != t,
+ * deg(v) h(v) - sum over the slots of v of h(neighbour) = deg(v).
+ * A self-loop slot appears on both sides with the same coefficient and cancels on the left, so
+ * the matrix is the Laplacian of the graph without its loops, grounded at t. That matrix is
+ * symmetric positive definite on a connected graph. The right-hand side keeps the full slot
+ * degree, because a loop is a step in which the walk stays put.
+ *
+ * Every system is solved with conjugate gradients, preconditioned with the Laplacian's diagonal,
+ * straight on the adjacency. The n systems of all targets are independent and are solved in
+ * parallel, on the fork-join pool the caller runs in.
+ *
+ * Commute times follow as H(u, v) + H(v, u), and effective resistances as the commute time over
+ * the total degree. Only the simple walk is covered: Matthews bounds say nothing about a
+ * non-backtracking walk.
+ */
+public final class HittingTimes {
+    private static final double TOLERANCE = 1e-10;
+
+    private final int n;
+    private final long volume;
+    // h[t * n + v] = H(v, t)
+    private final double[] h;
+
+    /**
+     * Matthews bounds on the expected cover time from any start vertex:
+     * minHittingTime * H(n-1) <= cover time <= maxHittingTime * H(n-1), with H(k) the k-th harmonic number.
+     */
+    public record MatthewsBounds(double lower, double upper, double minHittingTime, double maxHittingTime) {
+    }
+
+    private HittingTimes(int n, long volume, double[] h) {
+        this.n = n;
+        this.volume = volume;
+        this.h = h;
+    }
+
+    /**
+     * Solves for the hitting times between all pairs. Keeps n^2 doubles, so it is meant for
+     * graphs of up to a few thousand vertices. {@link #matthewsBounds(Adjacency)} needs only O(n) per target.
+     * @throws IllegalArgumentException If g is not connected, so that some hitting times are infinite.
+     */
+    public static HittingTimes of(Adjacency g) {
+        int n = g.vertexCount();
+        Laplacian lap = new Laplacian(g);
+        double[] h = new double[n * n];
+        IntStream.range(0, n).parallel().forEach(t -> System.arraycopy(lap.solve(t), 0, h, t * n, n));
+        return new HittingTimes(n, lap.volume, h);
+    }
+
+    /**
+     * @return The expected number of steps a walk started at from needs to reach to.
+     */
+    public double hittingTime(int from, int to) {
+        return h[to * n + from];
+    }
+
+    public double commuteTime(int u, int v) {
+        return hittingTime(u, v) + hittingTime(v, u);
+    }
+
+    /**
+     * @return The effective resistance between u and v with a unit resistor per edge copy.
+     */
+    public double effectiveResistance(int u, int v) {
+        return commuteTime(u, v) / volume;
+    }
+
+    /**
+     * Matthews bounds of the simple walk on g, with the hitting times of one target in memory at a time.
+     * @throws IllegalArgumentException If g is not connected.
+     */
+    public static MatthewsBounds matthewsBounds(Adjacency g) {
+        int n = g.vertexCount();
+        if (n <= 1) {
+            return new MatthewsBounds(0, 0, 0, 0);
+        }
+        Laplacian lap = new Laplacian(g);
+        double[][] extremes = IntStream.range(0, n).parallel().mapToObj(t -> {
+            double[] col = lap.solve(t);
+            double min = Double.POSITIVE_INFINITY;
+            double max = 0;
+            for (int v = 0; v < n; v++) {
+                if (v != t) {
+                    min = Math.min(min, col[v]);
+                    max = Math.max(max, col[v]);
+                }
+            }
+            return new double[]{min, max};
+        }).toArray(double[][]::new);
+        double min = Double.POSITIVE_INFINITY;
+        double max = 0;
+        for (double[] e : extremes) {
+            min = Math.min(min, e[0]);
+            max = Math.max(max, e[1]);
+        }
+        double harmonic = 0;
+        for (int k = 1; k < n; k++) {
+            harmonic += 1.0 / k;
+        }
+        return new MatthewsBounds(min * harmonic, max * harmonic, min, max);
+    }
+
+    /**
+     * Averages the Matthews bounds over the graphs of the first 'graphs' runs of a configuration,
+     * regenerated from the same per-run seeds the simulation uses.
+     * Averaged over graphs, they bound the mean simulated cover time of those graphs.
+     */
+    public static MatthewsBounds matthewsBounds(ExperimentConfig config, long masterSeed, int graphs) {
+        long configSeed = ParallelExperimentRunner.configSeed(masterSeed, config);
+        double lower = 0;
+        double upper = 0;
+        double min = 0;
+        double max = 0;
+        for (int run = 0; run < graphs; run++) {
+            RandomGenerator rng = ParallelExperimentRunner.runRandom(ParallelExperimentRunner.runSeed(configSeed, run));
+            MatthewsBounds b = matthewsBounds(config.type().generateCsr(config.n(), config.c(), rng));
+            lower += b.lower();
+            upper += b.upper();
+            min += b.minHittingTime();
+            max += b.maxHittingTime();
+        }
+        return new MatthewsBounds(lower / graphs, upper / graphs, min / graphs, max / graphs);
+    }
+
+    /**
+     * The loopless Laplacian of a graph, applied matrix-free, with its per-target PCG solve.
+     */
+    private static final class Laplacian {
+        final Adjacency g;
+        final int n;
+        // Slot degree, the right-hand side, and the diagonal: slot degree minus self-loops.
+        final double[] degree;
+        final double[] diagonal;
+        final long volume;
+        final int[] offsets;
+        final int[] targets;
+
+        Laplacian(Adjacency g) {
+            if (!Connectivity.isConnected(g)) {
+                throw new IllegalArgumentException("hitting times of a disconnected graph are infinite");
+            }
+            this.g = g;
+            this.n = g.vertexCount();
+            CsrGraph csr = g instanceof CsrGraph c ? c : null;
+            offsets = csr == null ? null : csr.offsets();
+            targets = csr == null ? null : csr.targets();
+            degree = new double[n];
+            diagonal = new double[n];
+            long vol = 0;
+            for (int v = 0; v < n; v++) {
+                int d = g.degree(v);
+                degree[v] = d;
+                diagonal[v] = d - g.multiplicity(v, v);
+                vol += d;
+            }
+            volume = vol;
+        }
+
+        /**
+         * y = L x, with the row and column of the target t left out (x[t] is treated as 0 and y[t] set to 0).
+         */
+        void apply(double[] x, double[] y, int t) {
+            for (int v = 0; v < n; v++) {
+                if (v == t) {
+                    y[v] = 0;
+                    continue;
+                }
+                double sum = 0;
+                if (targets != null) {
+                    for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) {
+                        int u = targets[i];
+                        if (u != v && u != t) {
+                            sum += x[u];
+                        }
+                    }
+                } else {
+                    int d = g.degree(v);
+                    for (int i = 0; i < d; i++) {
+                        int u = g.neighbor(v, i);
+                        if (u != v && u != t) {
+                            sum += x[u];
+                        }
+                    }
+                }
+                y[v] = diagonal[v] * x[v] - sum;
+            }
+        }
+
+        /**
+         * @return H(v, t) for every v, with 0 at t.
+         */
+        double[] solve(int t) {
+            double[] x = new double[n];
+            double[] r = degree.clone();
+            r[t] = 0;
+            double[] z = new double[n];
+            double[] p = new double[n];
+            double[] ap = new double[n];
+            double rz = 0;
+            double bNorm = 0;
+            for (int v = 0; v < n; v++) {
+                z[v] = v == t ? 0 : r[v] / diagonal[v];
+                p[v] = z[v];
+                rz += r[v] * z[v];
+                bNorm += r[v] * r[v];
+            }
+            double stop = TOLERANCE * TOLERANCE * bNorm;
+            // CG converges in at most n steps in exact arithmetic; the slack covers rounding.
+            int maxIterations = 10 * n + 100;
+            for (int it = 0; it < maxIterations; it++) {
+                apply(p, ap, t);
+                double pap = 0;
+                for (int v = 0; v < n; v++) {
+                    pap += p[v] * ap[v];
+                }
+                double alpha = rz / pap;
+                double rr = 0;
+                for (int v = 0; v < n; v++) {
+                    x[v] += alpha * p[v];
+                    r[v] -= alpha * ap[v];
+                    rr += r[v] * r[v];
+                }
+                if (rr <= stop) {
+                    return x;
+                }
+                double rzNext = 0;
+                for (int v = 0; v < n; v++) {
+                    z[v] = v == t ? 0 : r[v] / diagonal[v];
+                    rzNext += r[v] * z[v];
+                }
+                double beta = rzNext / rz;
+                rz = rzNext;
+                for (int v = 0; v < n; v++) {
+                    p[v] = z[v] + beta * p[v];
+                }
+            }
+            throw new IllegalStateException("conjugate gradients did not converge for target " + t);
+        }
+    }
+}
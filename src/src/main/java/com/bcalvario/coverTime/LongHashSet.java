@@ -0,0 +1,76 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of longs, used by the generators to remember sampled vertex pairs
+ * without boxing. Linear probing over a power-of-two table kept at most half full.
+ * Long.MIN_VALUE marks an empty slot and cannot be stored.
+ */
+final class LongHashSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * @return true if the key was not present yet.
+     */
+    boolean add(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be stored");
+        }
+        if (2 * (size + 1) > table.length) {
+            grow();
+        }
+        int mask = table.length - 1;
+        int i = index(key, mask);
+        while (table[i] != EMPTY) {
+            if (table[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return The keys in table order; the caller sorts them if it needs an order.
+     */
+    long[] toArray() {
+        long[] keys = new long[size];
+        int k = 0;
+        for (long key : table) {
+            if (key != EMPTY) {
+                keys[k++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        Arrays.fill(table, EMPTY);
+        size = 0;
+        for (long key : old) {
+            if (key != EMPTY) {
+                add(key);
+            }
+        }
+    }
+
+    private static int index(long key, int mask) {
+        // Fibonacci hashing spreads consecutive pair ranks over the whole table; the high 32 bits
+        // of the product cover every table size an int index allows.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
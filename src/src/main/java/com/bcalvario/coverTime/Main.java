@@ -3,67 +3,124 @@ package com.bcalvario.coverTime;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.random.RandomGenerator;
 
 /**
  * Main class for the random walker simulation.
  * This version is modified to test and compare two specific graph instances:
  * a Simple Graph and a Multigraph of the same size and connection count.
  *
+ * Run with the argument "adaptive" to keep sampling every configuration until its
+ * confidence interval reaches {@link Constants#TARGET_RELATIVE_CI} instead of using a fixed run count,
+ * or with "sweep" to run every node count in {@link Constants#SWEEP_NODE_COUNTS} against every
+ * edge count in {@link GraphUtil#cList}. "pipelined" runs the fixed run count with graph generation
+ * and walking as separate stages, see {@link PipelinedExperimentRunner}. "paired" walks every strategy on
+ * the same graphs from the same starts and reports how they differ, see
+ * {@link ParallelExperimentRunner#runPaired}. "walkers" measures how the cover time shrinks with
+ * the number of simultaneous walkers in {@link Constants#WALKER_COUNTS}. "coverage" reports the
+ * mean steps to reach each fraction in {@link Constants#COVERAGE_FRACTIONS} of the nodes. "bounded"
+ * gives every run {@link Constants#RUN_TIMEOUT_MILLIS} and re-queues or abandons the runs that
+ * exceed it, see {@link ParallelExperimentRunner#runBounded}.
+ *
+ * In the default "fixed" mode the option --compare-serial also times the single threaded path
+ * and reports the parallel speedup, e.g. "fixed --compare-serial".
+ *
  * @author Brandon Calvario
  */
 public final class Main {
+    private static final String RULE = "-".repeat(165);
+    // Matthews bounds by graph type, n and c; each solve is done once however many rows show it.
+    private static final Map<String, HittingTimes.MatthewsBounds> MATTHEWS_BOUNDS = new HashMap<>();
 
     public static void main(String[] args) {
         // --- Define the parameters for the two specific graphs to be tested ---
         final int NODE_COUNT = 15;
         final int EDGE_COUNT = 25;
+        String mode = args.length > 0 && !args[0].startsWith("--") ? args[0] : "fixed";
+        boolean compareSerial = Arrays.asList(args).contains("--compare-serial");
+        boolean adaptive = mode.equals("adaptive");
 
-        Random rng = new Random();
+        RandomGenerator rng = new FastRandom(Constants.MASTER_SEED);
         List<WalkStrategy> strategies = List.of(
                 new SimpleRandomWalk(),
                 new NonBacktrackingRandomWalk()
         );
+        if (mode.equals("sweep")) {
+            runSweep(strategies);
+            return;
+        }
+        if (mode.equals("paired")) {
+            runPaired(NODE_COUNT, EDGE_COUNT, strategies);
+            return;
+        }
+        if (mode.equals("walkers")) {
+            runWalkers(NODE_COUNT, EDGE_COUNT, strategies);
+            return;
+        }
+        if (mode.equals("coverage")) {
+            runCoverage(NODE_COUNT, EDGE_COUNT, strategies);
+            return;
+        }
+        if (mode.equals("bounded")) {
+            runBounded(NODE_COUNT, EDGE_COUNT, strategies);
+            return;
+        }
+        List<ExperimentConfig> configs = new ArrayList<>();
+        for (GraphType type : GraphType.values()) {
+            for (WalkStrategy strategy : strategies) {
+                configs.add(new ExperimentConfig(type, NODE_COUNT, EDGE_COUNT, strategy));
+            }
+        }
 
         // --- Print Header for Statistical Results ---
-        System.out.println("Comparing two specific graphs: N=" + NODE_COUNT + ", C=" + EDGE_COUNT);
-        System.out.printf("%-14s %-28s %-12s%n", "Graph Type", "Strategy", "AvgCoverTime");
-        System.out.println("----------------------------------------------------------");
-
-        // --- Test 1: Simple Graph ---
-        Graph<Integer, DefaultEdge> simpleGraph = GraphUtil.connectedRandomSimpleGraph(NODE_COUNT, EDGE_COUNT, rng);
-        for (WalkStrategy strategy : strategies) {
-            long totalCoverTime = 0;
-            for (int run = 0; run < Constants.RUNS_PER_CONFIG; run++) {
-                // To be statistically fair, we can regenerate the graph for each run
-                Graph<Integer, DefaultEdge> g = GraphUtil.connectedRandomSimpleGraph(NODE_COUNT, EDGE_COUNT, rng);
-                totalCoverTime += strategy.coverTime(g, rng);
-            }
-            double avgCoverTime = totalCoverTime / (double) Constants.RUNS_PER_CONFIG;
-            System.out.printf("%-14s %-28s %-12.2f%n",
-                    "Simple Graph", strategy.getName(), avgCoverTime);
-        }
-
-        // --- Test 2: Multigraph ---
-        Graph<Integer, DefaultEdge> multiGraph = GraphUtil.connectedRandomMultigraph(NODE_COUNT, EDGE_COUNT, rng);
-        for (WalkStrategy strategy : strategies) {
-            long totalCoverTime = 0;
-            for (int run = 0; run < Constants.RUNS_PER_CONFIG; run++) {
-                // Regenerate for each run
-                Graph<Integer, DefaultEdge> g = GraphUtil.connectedRandomMultigraph(NODE_COUNT, EDGE_COUNT, rng);
-                totalCoverTime += strategy.coverTime(g, rng);
-            }
-            double avgCoverTime = totalCoverTime / (double) Constants.RUNS_PER_CONFIG;
-            System.out.printf("%-14s %-28s %-12.2f%n",
-                    "Multigraph", strategy.getName(), avgCoverTime);
+        System.out.println("Comparing two specific graphs: N=" + NODE_COUNT + ", C=" + EDGE_COUNT
+                + " (" + Constants.PARALLELISM + " threads, seed " + Constants.MASTER_SEED + ")");
+        if (adaptive) {
+            System.out.printf("Adaptive: target 95%% CI within %.1f%% of the mean, at most %d runs%n",
+                    100 * Constants.TARGET_RELATIVE_CI, Constants.MAX_RUNS_PER_CONFIG);
         }
+        // Pipelined times are generation plus walk time summed over the threads, not wall time.
+        printHeader(mode.equals("pipelined") ? "Runs/thread-s" : "Runs/sec");
 
-        System.out.println("----------------------------------------------------------");
+        // To be statistically fair, every run regenerates its graph from its own seeded stream.
+        if (mode.equals("pipelined")) {
+            runPipelined(configs);
+        } else {
+            try (ParallelExperimentRunner runner =
+                         new ParallelExperimentRunner(Constants.PARALLELISM, Constants.MASTER_SEED)) {
+                if (adaptive) {
+                    long start = System.nanoTime();
+                    Map<ExperimentConfig, ExperimentResult> results = runner.runAdaptive(configs,
+                            Constants.TARGET_RELATIVE_CI, Constants.MAX_RUNS_PER_CONFIG, Constants.ADAPTIVE_BATCH);
+                    long totalRuns = 0;
+                    for (Map.Entry<ExperimentConfig, ExperimentResult> e : results.entrySet()) {
+                        printRow(e.getKey(), e.getValue());
+                        totalRuns += e.getValue().runs();
+                    }
+                    System.out.println(RULE);
+                    System.out.printf("%d runs in %.2f s%n", totalRuns, (System.nanoTime() - start) / 1e9);
+                } else {
+                    runFixed(runner, configs, compareSerial);
+                }
+            }
+        }
 
         // --- Side-by-Side Visualization ---
-        // We will visualize the first instance of each graph type that we generated.
+        // We will visualize one instance of each graph type.
         if (Constants.SHOW_GRAPHS) {
+            // Only the preview needs JGraphT objects, so the graphs are converted here.
+            Graph<Integer, DefaultEdge> simpleGraph = GraphUtil.connectedRandomSimpleCsr(NODE_COUNT, EDGE_COUNT, rng).toGraph();
+            Graph<Integer, DefaultEdge> multiGraph = GraphUtil.connectedRandomMultigraphCsr(NODE_COUNT, EDGE_COUNT, rng).toGraph();
+
             // We'll use the more efficient NonBacktracking walker for the animation
             WalkStrategy visualStrategy = new NonBacktrackingRandomWalk();
 
@@ -74,4 +131,263 @@ public final class Main {
             GraphPreview.animateTwoWalksSideBySide(simpleGraph, visualStrategy, title1, multiGraph, visualStrategy, title2);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs every configuration {@link Constants#RUNS_PER_CONFIG} times and reports the runs per second.
+     * @param compareSerial Also time the single threaded path and report the parallel speedup. Both
+     *                      paths then first run every configuration once untimed, so neither is
+     *                      timed before the JIT has compiled it.
+     */
+    private static void runFixed(ParallelExperimentRunner runner, List<ExperimentConfig> configs, boolean compareSerial) {
+        if (compareSerial) {
+            for (ExperimentConfig config : configs) {
+                runner.run(config, Constants.RUNS_PER_CONFIG);
+                runner.runSerial(config, Constants.RUNS_PER_CONFIG);
+            }
+        }
+        long parallelNanos = 0;
+        long serialNanos = 0;
+        long totalRuns = 0;
+        for (ExperimentConfig config : configs) {
+            ExperimentResult result = runner.run(config, Constants.RUNS_PER_CONFIG);
+            parallelNanos += result.elapsedNanos();
+            totalRuns += result.runs();
+            printRow(config, result);
+
+            if (compareSerial) {
+                ExperimentResult serial = runner.runSerial(config, Constants.RUNS_PER_CONFIG);
+                serialNanos += serial.elapsedNanos();
+                if (serial.stats().sum() != result.stats().sum()) {
+                    throw new IllegalStateException("parallel and serial runs disagree for " + config.key());
+                }
+            }
+        }
+        System.out.println(RULE);
+        System.out.printf("Parallel: %.0f runs/sec%n", totalRuns / (parallelNanos / 1e9));
+        if (compareSerial) {
+            System.out.printf("Serial:   %.0f runs/sec, speedup %.2fx%n",
+                    totalRuns / (serialNanos / 1e9), serialNanos / (double) parallelNanos);
+        }
+    }
+
+    /**
+     * Runs every configuration {@link Constants#RUNS_PER_CONFIG} times through the generate/walk
+     * pipeline and prints how busy each stage was.
+     */
+    private static void runPipelined(List<ExperimentConfig> configs) {
+        long start = System.nanoTime();
+        try (PipelinedExperimentRunner pipeline = new PipelinedExperimentRunner(Constants.PARALLELISM,
+                Constants.MASTER_SEED, Constants.PIPELINE_QUEUE_CAPACITY)) {
+            Map<ExperimentConfig, ExperimentResult> results = pipeline.run(configs, Constants.RUNS_PER_CONFIG);
+            long totalRuns = 0;
+            for (Map.Entry<ExperimentConfig, ExperimentResult> e : results.entrySet()) {
+                printRow(e.getKey(), e.getValue());
+                totalRuns += e.getValue().runs();
+            }
+            System.out.println(RULE);
+            System.out.printf("Pipelined: %.0f runs/sec%n", totalRuns / ((System.nanoTime() - start) / 1e9));
+            for (PipelinedExperimentRunner.StageMetrics m : pipeline.metrics()) {
+                System.out.printf("  %-9s %d threads, %d graphs, %.1f us each, %d stalls (%.0f ms waiting)%n",
+                        m.stage(), m.threads(), m.items(), m.meanMicros(), m.stalls(), m.stallNanos() / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Compares the strategies on shared instances, {@link Constants#RUNS_PER_CONFIG} per graph type,
+     * and prints each strategy's difference and ratio against the first one.
+     */
+    private static void runPaired(int n, int c, List<WalkStrategy> strategies) {
+        System.out.println("Paired comparison: N=" + n + ", C=" + c + ", every strategy on the same graph and start ("
+                + Constants.PARALLELISM + " threads, seed " + Constants.MASTER_SEED + ")");
+        printHeader();
+        List<PairedResult> results = new ArrayList<>();
+        try (ParallelExperimentRunner runner =
+                     new ParallelExperimentRunner(Constants.PARALLELISM, Constants.MASTER_SEED)) {
+            for (GraphType type : GraphType.values()) {
+                PairedResult result = runner.runPaired(type, n, c, strategies, Constants.RUNS_PER_CONFIG);
+                results.add(result);
+                for (int i = 0; i < strategies.size(); i++) {
+                    // The bounds would come from the graphs of independent runs, not the paired ones walked here.
+                    printRow(new ExperimentConfig(type, n, c, strategies.get(i)),
+                            new ExperimentResult(result.stats().get(i), result.strategyNanos().get(i)), null);
+                }
+            }
+        }
+        System.out.println(RULE);
+        for (PairedResult result : results) {
+            String baseline = result.strategies().get(0).getName();
+            for (int i = 1; i < result.strategies().size(); i++) {
+                PairedStats p = result.versusFirst().get(i - 1);
+                System.out.printf("%-14s %s vs %s: difference %.2f +- %.2f, ratio %.3f +- %.3f, "
+                                + "correlation %.2f, one paired run worth %.1f independent runs%n",
+                        result.type().label(), result.strategies().get(i).getName(), baseline, p.meanDifference(),
+                        p.differenceCiHalfWidth95(), p.ratio(), p.ratioCiHalfWidth95(), p.correlation(),
+                        p.varianceReduction());
+            }
+        }
+    }
+
+    /**
+     * Runs every strategy with every walker count in {@link Constants#WALKER_COUNTS} and prints the
+     * cover time in rounds, with the speedup over a single walker.
+     */
+    private static void runWalkers(int n, int c, List<WalkStrategy> strategies) {
+        System.out.println("Multiple walkers: N=" + n + ", C=" + c + ", cover time in rounds ("
+                + Constants.PARALLELISM + " threads, seed " + Constants.MASTER_SEED + ")");
+        printHeader();
+        try (ParallelExperimentRunner runner =
+                     new ParallelExperimentRunner(Constants.PARALLELISM, Constants.MASTER_SEED)) {
+            for (GraphType type : GraphType.values()) {
+                for (WalkStrategy rule : strategies) {
+                    double single = Double.NaN;
+                    StringBuilder speedups = new StringBuilder();
+                    for (int k : Constants.WALKER_COUNTS) {
+                        ExperimentConfig config = new ExperimentConfig(type, n, c,
+                                new MultiWalkerRandomWalk(k, rule, Constants.WALKER_THREADS));
+                        ExperimentResult result = runner.run(config, Constants.RUNS_PER_CONFIG);
+                        printRow(config, result);
+                        if (Double.isNaN(single)) {
+                            single = result.averageCoverTime();
+                        }
+                        speedups.append(String.format(" k=%d: %.2fx", k, single / result.averageCoverTime()));
+                    }
+                    System.out.println("  speedup over " + Constants.WALKER_COUNTS[0] + " walker(s):" + speedups);
+                }
+            }
+        }
+        System.out.println(RULE);
+    }
+
+    /**
+     * Runs every configuration with a time limit per run and reports the runs that had to be
+     * re-queued or were abandoned next to the usual statistics.
+     */
+    private static void runBounded(int n, int c, List<WalkStrategy> strategies) {
+        Duration timeout = Duration.ofMillis(Constants.RUN_TIMEOUT_MILLIS);
+        System.out.println("Bounded runs: N=" + n + ", C=" + c + ", " + timeout.toMillis() + " ms per run, "
+                + Constants.RUN_ATTEMPTS + " attempts (" + Constants.PARALLELISM + " threads, seed "
+                + Constants.MASTER_SEED + ")");
+        printHeader();
+        List<String> notes = new ArrayList<>();
+        try (ParallelExperimentRunner runner =
+                     new ParallelExperimentRunner(Constants.PARALLELISM, Constants.MASTER_SEED)) {
+            for (GraphType type : GraphType.values()) {
+                for (WalkStrategy strategy : strategies) {
+                    ExperimentConfig config = new ExperimentConfig(type, n, c, strategy);
+                    BoundedResult result = runner.runBounded(config, Constants.RUNS_PER_CONFIG, timeout,
+                            Constants.RUN_ATTEMPTS);
+                    printRow(config, result.result());
+                    if (result.requeued() > 0 || result.abandoned() > 0) {
+                        notes.add(String.format("%-14s %s: %d re-queued, %d abandoned %s", type.label(),
+                                strategy.getName(), result.requeued(), result.abandoned(), result.abandonedRuns()));
+                    }
+                }
+            }
+        }
+        System.out.println(RULE);
+        notes.forEach(System.out::println);
+    }
+
+    /**
+     * Walks the runs of every configuration with a {@link CoverageRecorder} attached and prints the
+     * mean step at which each coverage fraction was reached. The runs use the same graphs, starts
+     * and seeds as the fixed mode, so the last column equals its average cover time.
+     */
+    private static void runCoverage(int n, int c, List<WalkStrategy> strategies) {
+        double[] fractions = Constants.COVERAGE_FRACTIONS;
+        System.out.println("Coverage curve: N=" + n + ", C=" + c + ", mean steps until a fraction of the nodes is visited"
+                + " (seed " + Constants.MASTER_SEED + ")");
+        StringBuilder header = new StringBuilder(String.format("%-14s %-28s", "Graph Type", "Strategy"));
+        CoverageRecorder recorder = new CoverageRecorder(null, fractions);
+        for (int i = 0; i < recorder.milestoneCount(); i++) {
+            header.append(String.format(" %10s", String.format("%.0f%%", 100 * recorder.fraction(i))));
+        }
+        System.out.println(header);
+        System.out.println(RULE);
+        for (GraphType type : GraphType.values()) {
+            for (WalkStrategy strategy : strategies) {
+                ExperimentConfig config = new ExperimentConfig(type, n, c, strategy);
+                long configSeed = ParallelExperimentRunner.configSeed(Constants.MASTER_SEED, config);
+                double[] sums = new double[recorder.milestoneCount()];
+                for (int run = 0; run < Constants.RUNS_PER_CONFIG; run++) {
+                    RandomGenerator rand = ParallelExperimentRunner.runRandom(ParallelExperimentRunner.runSeed(configSeed, run));
+                    CsrGraph g = type.generateCsr(n, c, rand);
+                    strategy.cover(g, rand, Long.MAX_VALUE, recorder, null);
+                    for (int i = 0; i < sums.length; i++) {
+                        sums[i] += recorder.milestoneStep(i);
+                    }
+                }
+                StringBuilder row = new StringBuilder(String.format("%-14s %-28s", type.label(), strategy.getName()));
+                for (double sum : sums) {
+                    row.append(String.format(" %10.2f", sum / Constants.RUNS_PER_CONFIG));
+                }
+                System.out.println(row);
+            }
+        }
+        System.out.println(RULE);
+    }
+
+    /**
+     * Sweeps the whole grid on a work-stealing pool, largest configurations first.
+     * Finished runs are logged to {@link Constants#SWEEP_RESULTS_FILE}, so a rerun resumes the sweep.
+     */
+    private static void runSweep(List<WalkStrategy> strategies) {
+        List<ExperimentConfig> configs = SweepEngine.grid(Constants.SWEEP_NODE_COUNTS,
+                List.of(GraphType.values()), strategies);
+        System.out.println("Sweeping " + configs.size() + " configurations x " + Constants.RUNS_PER_CONFIG
+                + " runs (" + Constants.PARALLELISM + " threads, seed " + Constants.MASTER_SEED + ")");
+        Map<ExperimentConfig, ExperimentResult> results;
+        try (ResultStore store = ResultStore.open(Path.of(Constants.SWEEP_RESULTS_FILE),
+                ParallelExperimentRunner.STREAMS);
+             SweepEngine sweep = new SweepEngine(Constants.PARALLELISM, Constants.MASTER_SEED, System.out)) {
+            results = sweep.run(configs, Constants.RUNS_PER_CONFIG, Constants.SWEEP_CHUNK_RUNS, store);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot use results file " + Constants.SWEEP_RESULTS_FILE, e);
+        }
+        printHeader();
+        results.forEach(Main::printRow);
+        System.out.println(RULE);
+    }
+
+    private static void printHeader() {
+        printHeader("Runs/sec");
+    }
+
+    /**
+     * @param rateColumn Header of the last column, which shows runs divided by the result's elapsed time.
+     */
+    private static void printHeader(String rateColumn) {
+        System.out.printf("%-14s %-6s %-6s %-28s %-12s %-10s %-10s %-10s %-10s %-12s %-12s %-8s %-12s%n", "Graph Type",
+                "N", "C", "Strategy", "AvgCoverTime", "95% CI +-", "p50", "p90", "p99", "Matthews lo", "Matthews hi",
+                "Runs", rateColumn);
+        System.out.println(RULE);
+    }
+
+    private static void printRow(ExperimentConfig config, ExperimentResult result) {
+        // The bounds hold for the simple walk only; the other strategies leave the columns empty.
+        HittingTimes.MatthewsBounds bounds = null;
+        if (config.strategy() instanceof SimpleRandomWalk && Constants.MATTHEWS_GRAPHS > 0) {
+            bounds = MATTHEWS_BOUNDS.computeIfAbsent(config.type().name() + '/' + config.n() + '/' + config.c(),
+                    key -> HittingTimes.matthewsBounds(config, Constants.MASTER_SEED, Constants.MATTHEWS_GRAPHS));
+        }
+        printRow(config, result, bounds);
+    }
+
+    /**
+     * @param bounds Matthews bounds to show, or null to leave the columns empty.
+     */
+    private static void printRow(ExperimentConfig config, ExperimentResult result, HittingTimes.MatthewsBounds bounds) {
+        CoverTimeStats stats = result.stats();
+        String lower = "-";
+        String upper = "-";
+        if (bounds != null) {
+            lower = String.format("%.2f", bounds.lower());
+            upper = String.format("%.2f", bounds.upper());
+        }
+        System.out.printf("%-14s %-6d %-6d %-28s %-12.2f %-10.2f %-10.0f %-10.0f %-10.0f %-12s %-12s %-8d %-12.0f%n",
+                config.type().label(), config.n(), config.c(), config.strategy().getName(), stats.mean(), stats.ciHalfWidth95(),
+                stats.quantile(0.5), stats.quantile(0.9), stats.quantile(0.99), lower, upper, result.runs(),
+                result.runsPerSecond());
+    }
+}
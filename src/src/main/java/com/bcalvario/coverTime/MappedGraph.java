@@ -0,0 +1,189 @@
+package com.bcalvario.coverTime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A CSR graph stored off-heap in a memory-mapped file.
+ * Opening a file only maps it, so loading is close to instant and the operating system pages
+ * adjacency data in and out as the walk needs it. The heap holds nothing that grows with the graph.
+ *
+ * File layout, little-endian:
+ * <pre>
+ *   int  magic 'CSRG', int version, int n, int reserved, long slotCount
+ *   long offsets[n + 1]    first slot of every vertex, offsets[n] == slotCount
+ *   int  targets[slotCount] neighbours of every vertex, sorted within the vertex
+ * </pre>
+ * Because targets are sorted, parallel copies of an edge are contiguous and the
+ * non-backtracking walk can find them by binary search.
+ */
+public final class MappedGraph implements Adjacency {
+    private static final int MAGIC = 0x43535247;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    // A single mapping cannot exceed 2 GB, so both arrays are mapped in segments of 2^27 elements.
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final int n;
+    private final long slotCount;
+    private final LongBuffer[] offsets;
+    private final IntBuffer[] targets;
+
+    private MappedGraph(int n, long slotCount, LongBuffer[] offsets, IntBuffer[] targets) {
+        this.n = n;
+        this.slotCount = slotCount;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Maps a graph file written by {@link #write}.
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a CSR graph file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int n = header.getInt();
+            header.getInt();
+            long slotCount = header.getLong();
+            long offsetsPos = HEADER_BYTES;
+            long targetsPos = offsetsPos + 8L * (n + 1);
+            if (ch.size() < targetsPos + 4L * slotCount) {
+                throw new IOException(file + " is truncated");
+            }
+            LongBuffer[] offsets = new LongBuffer[segments(n + 1L)];
+            for (int s = 0; s < offsets.length; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long count = Math.min(1L << SEGMENT_SHIFT, n + 1L - first);
+                offsets[s] = map(ch, offsetsPos + 8 * first, 8 * count).asLongBuffer();
+            }
+            IntBuffer[] targets = new IntBuffer[segments(slotCount)];
+            for (int s = 0; s < targets.length; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long count = Math.min(1L << SEGMENT_SHIFT, slotCount - first);
+                targets[s] = map(ch, targetsPos + 4 * first, 4 * count).asIntBuffer();
+            }
+            // The mappings stay valid after the channel is closed.
+            return new MappedGraph(n, slotCount, offsets, targets);
+        }
+    }
+
+    /**
+     * Writes a graph file that {@link #open} can map.
+     * Targets are taken from the edge-indexed form, which is sorted within every vertex.
+     */
+    public static void write(CsrGraph graph, Path file) throws IOException {
+        EdgeIndexedGraph sorted = graph.edgeIndexed();
+        int n = graph.vertexCount();
+        int[] offsets = sorted.offsets();
+        int[] targets = sorted.targets();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(0).putLong(targets.length);
+            for (int offset : offsets) {
+                if (buf.remaining() < 8) {
+                    drain(ch, buf);
+                }
+                buf.putLong(offset);
+            }
+            for (int target : targets) {
+                if (buf.remaining() < 4) {
+                    drain(ch, buf);
+                }
+                buf.putInt(target);
+            }
+            drain(ch, buf);
+            ch.force(true);
+        }
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    private static ByteBuffer map(FileChannel ch, long position, long size) throws IOException {
+        return ch.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int segments(long elements) {
+        return (int) ((elements + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    private long offset(int v) {
+        return offsets[v >>> SEGMENT_SHIFT].get((int) (v & SEGMENT_MASK));
+    }
+
+    private int target(long slot) {
+        return targets[(int) (slot >>> SEGMENT_SHIFT)].get((int) (slot & SEGMENT_MASK));
+    }
+
+    public long slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    public int vertexCount() {
+        return n;
+    }
+
+    @Override
+    public int degree(int v) {
+        return (int) (offset(v + 1) - offset(v));
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        return target(offset(v) + i);
+    }
+
+    @Override
+    public int multiplicity(int v, int u) {
+        long end = offset(v + 1);
+        long start = lowerBound(offset(v), end, u);
+        long stop = lowerBound(start, end, u + 1L);
+        return (int) (stop - start);
+    }
+
+    @Override
+    public int neighborSkipping(int v, int u, int skip, int i) {
+        long start = offset(v);
+        long run = lowerBound(start, offset(v + 1), u);
+        long slot = start + i;
+        return target(slot < run ? slot : slot + skip);
+    }
+
+    // First slot in [from, to) whose target is >= key.
+    private long lowerBound(long from, long to, long key) {
+        while (from < to) {
+            long mid = (from + to) >>> 1;
+            if (target(mid) < key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Outcome of a walk by several walkers that may have been stopped by its round budget.
+ *
+ * @param rounds      Rounds until the union of all walkers' visits covered the graph, the parallel cover time.
+ *                    In each round every walker takes one step, in walker order, up to the step that completes the cover.
+ * @param walkerSteps Steps taken by each walker.
+ * @param visited     Number of distinct nodes visited by any walker, including the start node.
+ * @param vertexCount Number of nodes in the graph.
+ * @param outcome     Why the walk stopped.
+ */
+public record MultiWalkResult(long rounds, long[] walkerSteps, int visited, int vertexCount,
+                              CoverResult.Outcome outcome) {
+
+    /**
+     * A walk that either covered the graph or spent its round budget.
+     */
+    public MultiWalkResult(long rounds, long[] walkerSteps, int visited, int vertexCount) {
+        this(rounds, walkerSteps, visited, vertexCount,
+                visited == vertexCount ? CoverResult.Outcome.COVERED : CoverResult.Outcome.STEP_LIMIT);
+    }
+
+    public boolean covered() {
+        return visited == vertexCount;
+    }
+
+    /**
+     * @return The steps of all walkers together, the work the cover cost.
+     */
+    public long totalSteps() {
+        long total = 0;
+        for (long s : walkerSteps) {
+            total += s;
+        }
+        return total;
+    }
+}
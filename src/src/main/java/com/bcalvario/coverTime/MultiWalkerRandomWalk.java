@@ -0,0 +1,482 @@
+package com.bcalvario.coverTime;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * k walkers start on the same node and move simultaneously, each by the rule of a single-walker
+ * strategy ({@link SimpleRandomWalk} or {@link NonBacktrackingRandomWalk}). The cover time is the
+ * number of rounds until the union of their visits covers the graph. The per-walker step counts
+ * are in {@link MultiWalkResult}.
+ *
+ * With one thread, all walkers step round by round and share one visited bitset and one random
+ * stream.
+ *
+ * With several threads, each thread takes a block of walkers with its own random stream. The
+ * walkers never influence each other, so a thread runs its walkers through a whole epoch of
+ * rounds on its own. It records every node it reaches in a shared array, by lock-free
+ * compare-and-set. Each node keeps the smallest (round, walker) key that reached it. The
+ * threads meet at a barrier after every epoch and stop once every node has a key. The largest
+ * key is the exact step that completed the cover, whatever order the threads ran in, so the
+ * result depends only on the seed and the thread count. The calling thread walks the first block
+ * and the others run on a shared pool of daemon threads that outlive the walk, so a short cover
+ * does not pay for starting threads. The pool grows as needed: the blocks of one walk wait for
+ * each other at the barrier, so they must all run at once.
+ */
+public class MultiWalkerRandomWalk implements WalkStrategy {
+    // Rounds the threads run between two barriers: longer means fewer barriers but more rounds past the cover.
+    private static final int EPOCH_ROUNDS = 256;
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final AtomicInteger WORKER_IDS = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "walkers-" + WORKER_IDS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int walkers;
+    private final WalkStrategy rule;
+    private final int threads;
+
+    /**
+     * @param walkers Number of walkers, k.
+     * @param rule    The single-walker strategy every walker follows.
+     * @param threads Threads to split the walkers across; 1 walks them all on the calling thread.
+     */
+    public MultiWalkerRandomWalk(int walkers, WalkStrategy rule, int threads) {
+        if (!(rule instanceof SimpleRandomWalk) && !(rule instanceof NonBacktrackingRandomWalk)) {
+            throw new IllegalArgumentException("no multi-walker engine for " + rule.getName());
+        }
+        if (walkers < 1 || threads < 1) {
+            throw new IllegalArgumentException("need at least one walker and one thread");
+        }
+        this.walkers = walkers;
+        this.rule = rule;
+        this.threads = threads;
+    }
+
+    public MultiWalkerRandomWalk(int walkers, WalkStrategy rule) {
+        this(walkers, rule, 1);
+    }
+
+    public int walkers() {
+        return walkers;
+    }
+
+    @Override
+    public String getName() {
+        return rule.getName() + " x" + walkers;
+    }
+
+    /**
+     * Covers the graph with the walkers; maxSteps is a budget of rounds, the recorder sees the
+     * round of every first visit and the control counts rounds as steps.
+     */
+    @Override
+    public CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                             WalkControl control) {
+        MultiWalkResult result = walk(graph, start, rand, maxSteps, recorder, control);
+        return new CoverResult(result.rounds(), result.visited(), result.vertexCount(), result.outcome());
+    }
+
+    /**
+     * Runs the walkers on the calling thread and keeps one frame per round holding the
+     * position of every walker, in walker order.
+     * @param maxSteps Round budget.
+     */
+    @Override
+    public WalkTrace trace(Adjacency graph, int start, RandomGenerator rand, int maxSteps) {
+        int n = graph.vertexCount();
+        WalkTrace.Builder trace = new WalkTrace.Builder(n, walkers);
+        for (int w = 0; w < walkers; w++) {
+            trace.add(start);
+        }
+        if (n <= 1) {
+            return trace.build();
+        }
+        Walkers ws = walkersFor(graph, start);
+        long[] seen = new long[(n + 63) >>> 6];
+        seen[start >>> 6] |= 1L << start;
+        int visited = 1;
+        for (int rounds = 0; visited < n && rounds < maxSteps; rounds++) {
+            for (int w = 0; w < walkers; w++) {
+                int v = ws.step(w, rand);
+                trace.add(v);
+                if ((seen[v >>> 6] & (1L << v)) == 0) {
+                    seen[v >>> 6] |= 1L << v;
+                    visited++;
+                }
+            }
+        }
+        return trace.build();
+    }
+
+    /**
+     * Covers the graph with the walkers, all starting at start.
+     * @param maxRounds Round budget; the walk stops and reports a capped result when it runs out.
+     */
+    public MultiWalkResult walk(Adjacency graph, int start, RandomGenerator rand, long maxRounds) {
+        return walk(graph, start, rand, maxRounds, null, null);
+    }
+
+    /**
+     * Covers the graph with the walkers, all starting at start, reporting first visits by round.
+     * @param recorder Observer of the coverage curve, or null. With several threads it is fed
+     *                 after the walk, in round order, from the recorded first visits.
+     * @param control  Cancellation, time limit and progress in rounds, or null. With several
+     *                 threads it is checked at the barrier after every epoch.
+     */
+    public MultiWalkResult walk(Adjacency graph, int start, RandomGenerator rand, long maxRounds, CoverageRecorder recorder,
+                                WalkControl control) {
+        int n = graph.vertexCount();
+        if (recorder != null) {
+            recorder.start(n, start);
+        }
+        if (control != null) {
+            control.start();
+        }
+        if (n <= 1) {
+            return new MultiWalkResult(0, new long[walkers], n, n);
+        }
+        Walkers ws = walkersFor(graph, start);
+        int t = Math.min(threads, walkers);
+        return t == 1
+                ? walkSerial(ws, n, start, rand, maxRounds, recorder, control)
+                : walkThreaded(ws, n, start, rand, maxRounds, t, recorder, control);
+    }
+
+    private Walkers walkersFor(Adjacency graph, int start) {
+        if (rule instanceof NonBacktrackingRandomWalk nb) {
+            boolean edgeRule = nb.backtracking() == NonBacktrackingRandomWalk.Backtracking.EDGE;
+            if (graph instanceof CsrGraph csr) {
+                return new EdgeIndexedWalkers(csr.edgeIndexed(), walkers, start, edgeRule);
+            }
+            if (graph instanceof EdgeIndexedGraph edges) {
+                return new EdgeIndexedWalkers(edges, walkers, start, edgeRule);
+            }
+            return new GenericNonBacktrackingWalkers(graph, walkers, start, edgeRule);
+        }
+        return graph instanceof CsrGraph csr
+                ? new CsrWalkers(csr, walkers, start)
+                : new GenericWalkers(graph, walkers, start);
+    }
+
+    private MultiWalkResult walkSerial(Walkers ws, int n, int start, RandomGenerator rand, long maxRounds,
+                                       CoverageRecorder recorder, WalkControl control) {
+        long[] seen = new long[(n + 63) >>> 6];
+        seen[start >>> 6] |= 1L << start;
+        int visited = 1;
+        long[] steps = new long[walkers];
+        long rounds = 0;
+        long limit = WalkControl.nextCheck(control, rounds, maxRounds);
+        while (true) {
+            while (visited < n && rounds < limit) {
+                rounds++;
+                for (int w = 0; w < walkers; w++) {
+                    int v = ws.step(w, rand);
+                    steps[w]++;
+                    if ((seen[v >>> 6] & (1L << v)) == 0) {
+                        seen[v >>> 6] |= 1L << v;
+                        visited++;
+                        if (recorder != null) {
+                            recorder.visit(v, rounds, visited);
+                        }
+                        if (visited == n) {
+                            break;
+                        }
+                    }
+                }
+            }
+            if (visited == n || rounds >= maxRounds) {
+                return new MultiWalkResult(rounds, steps, visited, n);
+            }
+            if (!control.proceed(rounds, visited)) {
+                return new MultiWalkResult(rounds, steps, visited, n, control.stopReason());
+            }
+            limit = WalkControl.nextCheck(control, rounds, maxRounds);
+        }
+    }
+
+    private MultiWalkResult walkThreaded(Walkers ws, int n, int start, RandomGenerator rand, long maxRounds, int t,
+                                         CoverageRecorder recorder, WalkControl control) {
+        // firstKey[v] = smallest round * k + walker that reached v; Long.MAX_VALUE while unvisited.
+        long[] firstKey = new long[n];
+        Arrays.fill(firstKey, Long.MAX_VALUE);
+        firstKey[start] = -1;
+        AtomicInteger remaining = new AtomicInteger(n - 1);
+        EpochBarrier barrier = new EpochBarrier(t, n, remaining, maxRounds, control);
+        Runnable[] blocks = new Runnable[t];
+        for (int i = 0; i < t; i++) {
+            int from = (int) ((long) walkers * i / t);
+            int to = (int) ((long) walkers * (i + 1) / t);
+            RandomGenerator r = new FastRandom(rand.nextLong());
+            blocks[i] = () -> runWalkers(ws, from, to, r, firstKey, remaining, barrier);
+        }
+        List<Future<?>> others = new ArrayList<>(t - 1);
+        for (int i = 1; i < t; i++) {
+            others.add(WORKERS.submit(blocks[i]));
+        }
+        blocks[0].run();
+        for (Future<?> other : others) {
+            try {
+                other.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while walking", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("a walker thread failed", e.getCause());
+            }
+        }
+        if (barrier.failure != null) {
+            throw new IllegalStateException("a walker thread failed", barrier.failure);
+        }
+        if (recorder != null) {
+            replay(firstKey, start, recorder);
+        }
+        long[] steps = new long[walkers];
+        if (remaining.get() > 0) {
+            Arrays.fill(steps, barrier.roundsDone);
+            CoverResult.Outcome outcome = control != null && control.stopReason() != null
+                    ? control.stopReason()
+                    : CoverResult.Outcome.STEP_LIMIT;
+            return new MultiWalkResult(barrier.roundsDone, steps, n - remaining.get(), n, outcome);
+        }
+        long last = 0;
+        for (long key : firstKey) {
+            last = Math.max(last, key);
+        }
+        // The cover completed in round last / k + 1, at walker last % k.
+        long rounds = last / walkers + 1;
+        int lastWalker = (int) (last % walkers);
+        for (int w = 0; w < walkers; w++) {
+            steps[w] = w <= lastWalker ? rounds : rounds - 1;
+        }
+        return new MultiWalkResult(rounds, steps, n, n);
+    }
+
+    /**
+     * Feeds the first visits of a threaded walk to recorder in the order the serial walk would
+     * have made them.
+     */
+    private void replay(long[] firstKey, int start, CoverageRecorder recorder) {
+        long[] keys = new long[firstKey.length];
+        int count = 0;
+        for (int v = 0; v < firstKey.length; v++) {
+            if (v != start && firstKey[v] != Long.MAX_VALUE) {
+                keys[count++] = firstKey[v];
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        // A key fixes its node: no two nodes share the walker and round of their first visit.
+        int[] nodeOfKey = new int[count];
+        for (int v = 0; v < firstKey.length; v++) {
+            if (v != start && firstKey[v] != Long.MAX_VALUE) {
+                nodeOfKey[Arrays.binarySearch(keys, 0, count, firstKey[v])] = v;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            recorder.visit(nodeOfKey[i], keys[i] / walkers + 1, i + 2);
+        }
+    }
+
+    private void runWalkers(Walkers ws, int from, int to, RandomGenerator rand, long[] firstKey, AtomicInteger remaining,
+                            EpochBarrier barrier) {
+        try {
+            long round = 0;
+            while (!barrier.done) {
+                long end = Math.min(barrier.maxRounds, round + EPOCH_ROUNDS);
+                for (int w = from; w < to; w++) {
+                    for (long r = round; r < end; r++) {
+                        int v = ws.step(w, rand);
+                        long key = r * walkers + w;
+                        long current = (long) KEYS.getOpaque(firstKey, v);
+                        while (key < current) {
+                            if (KEYS.compareAndSet(firstKey, v, current, key)) {
+                                if (current == Long.MAX_VALUE) {
+                                    remaining.decrementAndGet();
+                                }
+                                break;
+                            }
+                            current = (long) KEYS.getOpaque(firstKey, v);
+                        }
+                    }
+                }
+                round = end;
+                barrier.roundsDone = end;
+                barrier.arriveAndAwaitAdvance();
+            }
+        } catch (RuntimeException | Error e) {
+            barrier.failure = e;
+        } finally {
+            barrier.arriveAndDeregister();
+        }
+    }
+
+    /**
+     * Barrier between epochs. The last thread to arrive decides whether to stop, so every thread
+     * sees the same decision even if another has already started the next epoch. It is also where
+     * the walk's control, if any, is checked.
+     */
+    private static final class EpochBarrier extends Phaser {
+        final int vertexCount;
+        final AtomicInteger remaining;
+        final long maxRounds;
+        final WalkControl control;
+        volatile boolean done;
+        volatile long roundsDone;
+        volatile Throwable failure;
+
+        EpochBarrier(int parties, int vertexCount, AtomicInteger remaining, long maxRounds, WalkControl control) {
+            super(parties);
+            this.vertexCount = vertexCount;
+            this.remaining = remaining;
+            this.maxRounds = maxRounds;
+            this.control = control;
+        }
+
+        @Override
+        protected boolean onAdvance(int phase, int registeredParties) {
+            if (done) {
+                // Blocks deregistering after the stop advance again; the walk is already over.
+                return registeredParties == 0;
+            }
+            int left = remaining.get();
+            done = left == 0 || roundsDone >= maxRounds || failure != null
+                    || (control != null && !control.proceed(roundsDone, vertexCount - left));
+            return registeredParties == 0;
+        }
+    }
+
+    /**
+     * The positions of all walkers on one graph. Walkers are independent, so different threads
+     * may step different walkers at the same time.
+     */
+    private abstract static class Walkers {
+        /**
+         * Moves walker w one step.
+         * @return Its new node.
+         */
+        abstract int step(int w, RandomGenerator rand);
+    }
+
+    private static final class CsrWalkers extends Walkers {
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] position;
+
+        CsrWalkers(CsrGraph graph, int k, int start) {
+            offsets = graph.offsets();
+            targets = graph.targets();
+            position = new int[k];
+            Arrays.fill(position, start);
+        }
+
+        @Override
+        int step(int w, RandomGenerator rand) {
+            int v = position[w];
+            int first = offsets[v];
+            v = targets[first + rand.nextInt(offsets[v + 1] - first)];
+            position[w] = v;
+            return v;
+        }
+    }
+
+    private static final class GenericWalkers extends Walkers {
+        private final Adjacency graph;
+        private final int[] position;
+
+        GenericWalkers(Adjacency graph, int k, int start) {
+            this.graph = graph;
+            position = new int[k];
+            Arrays.fill(position, start);
+        }
+
+        @Override
+        int step(int w, RandomGenerator rand) {
+            int v = position[w];
+            v = graph.neighbor(v, rand.nextInt(graph.degree(v)));
+            position[w] = v;
+            return v;
+        }
+    }
+
+    private static final class EdgeIndexedWalkers extends Walkers {
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] reverse;
+        private final int[] runStart;
+        private final int[] runEnd;
+        private final boolean edgeRule;
+        private final int start;
+        // Slot each walker arrived over; -1 before its first, unrestricted step.
+        private final int[] arrival;
+
+        EdgeIndexedWalkers(EdgeIndexedGraph graph, int k, int start, boolean edgeRule) {
+            offsets = graph.offsets();
+            targets = graph.targets();
+            reverse = graph.reverse();
+            runStart = graph.runStart();
+            runEnd = graph.runEnd();
+            this.edgeRule = edgeRule;
+            this.start = start;
+            arrival = new int[k];
+            Arrays.fill(arrival, -1);
+        }
+
+        @Override
+        int step(int w, RandomGenerator rand) {
+            int a = arrival[w];
+            a = a < 0
+                    ? offsets[start] + rand.nextInt(offsets[start + 1] - offsets[start])
+                    : NonBacktrackingRandomWalk.nextSlot(offsets, targets, reverse, runStart, runEnd, a, edgeRule, rand);
+            arrival[w] = a;
+            return targets[a];
+        }
+    }
+
+    private static final class GenericNonBacktrackingWalkers extends Walkers {
+        private final Adjacency graph;
+        private final boolean edgeRule;
+        private final int[] position;
+        private final int[] previous;
+
+        GenericNonBacktrackingWalkers(Adjacency graph, int k, int start, boolean edgeRule) {
+            this.graph = graph;
+            this.edgeRule = edgeRule;
+            position = new int[k];
+            previous = new int[k];
+            Arrays.fill(position, start);
+            Arrays.fill(previous, -1);
+        }
+
+        @Override
+        int step(int w, RandomGenerator rand) {
+            // Same rule as the generic path of NonBacktrackingRandomWalk.
+            int current = position[w];
+            int prev = previous[w];
+            int degree = graph.degree(current);
+            int next;
+            if (prev == -1) {
+                next = graph.neighbor(current, rand.nextInt(degree));
+            } else {
+                int excluded = edgeRule ? 1 : graph.multiplicity(current, prev);
+                next = degree == excluded
+                        ? prev
+                        : graph.neighborSkipping(current, prev, excluded, rand.nextInt(degree - excluded));
+            }
+            previous[w] = current;
+            position[w] = next;
+            return next;
+        }
+    }
+}
@@ -1,11 +1,6 @@
 package com.bcalvario.coverTime;
 
-import org.jgrapht.Graph;
-import org.jgrapht.Graphs;
-import org.jgrapht.graph.DefaultEdge;
-
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Implements a non-backtracking random walk strategy.
@@ -14,48 +9,202 @@ import java.util.Random;
  * one-step memory to the walk, making it a more efficient exploration strategy
  * compared to a simple random walk, as it avoids wasting steps.
  *
+ * The walk runs on an {@link EdgeIndexedGraph}, so the edge it arrived on is known by slot id
+ * and can be left out of the draw in O(1), without building or searching a neighbour list.
+ *
  * @author Brandon Calvario
  */
-public class NonBacktrackingRandomWalk implements WalkStrategy {
+public class NonBacktrackingRandomWalk implements SingleWalkerStrategy {
+
+    /**
+     * What counts as backtracking. The two rules only differ on multigraphs.
+     */
+    public enum Backtracking {
+        /** Never step straight back to the previous node, over any of the parallel edges to it. */
+        VERTEX,
+        /** Never traverse the edge just arrived on in reverse; a parallel copy may still be used. */
+        EDGE
+    }
+
+    private final Backtracking backtracking;
+
+    public NonBacktrackingRandomWalk() {
+        this(Backtracking.VERTEX);
+    }
+
+    public NonBacktrackingRandomWalk(Backtracking backtracking) {
+        this.backtracking = backtracking;
+    }
+
+    public Backtracking backtracking() {
+        return backtracking;
+    }
+
     @Override
     public String getName() {
-        return "Non-Backtracking";
+        return backtracking == Backtracking.VERTEX ? "Non-Backtracking" : "Non-Backtracking (edge)";
     }
 
     @Override
-    public int coverTime(Graph<Integer, DefaultEdge> graph, Random rand) {
-        int n = graph.vertexSet().size();
-        // If the graph is trivial, the cover time is 0.
+    public CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                             WalkControl control) {
+        if (graph instanceof CsrGraph csr) {
+            return cover(csr.edgeIndexed(), start, rand, maxSteps, recorder, control);
+        }
+        if (graph instanceof EdgeIndexedGraph edges) {
+            return cover(edges, start, rand, maxSteps, recorder, control);
+        }
+        if (recorder != null) {
+            recorder.start(graph.vertexCount(), start);
+        }
+        if (control != null) {
+            control.start();
+        }
+        int n = graph.vertexCount();
         if (n <= 1) {
-            return 0;
+            return new CoverResult(0, n, n);
         }
-        // Start at a random node.
-        int current = rand.nextInt(n);
-        // 'previous' stores the last visited node to prevent backtracking. Initialized to -1.
+        // Generic path for representations without reverse slots, e.g. a MappedGraph. Like the
+        // generic simple walk it keeps a per-walk bitset instead of the thread's stamp array.
+        // Parallel copies of an edge are interchangeable, so leaving out one copy back to the
+        // previous node is exactly the edge rule.
+        int current = start;
         int previous = -1;
-        boolean[] seen = new boolean[n];
-        seen[current] = true;
-        int visited = 1, steps = 0;
-        while (visited < n) {
-            // Get the list of neighbors of the current node.
-            List<Integer> neighbors = Graphs.neighborListOf(graph, current);
-            // If there's more than one neighbor and we're not at the starting step,
-            // remove the previous node from the list of possible next steps.
-            if (neighbors.size() > 1 && previous != -1) {
-                neighbors.remove(Integer.valueOf(previous));
+        long[] seen = new long[(n + 63) >>> 6];
+        seen[current >>> 6] |= 1L << current;
+        int visited = 1;
+        long steps = 0;
+        long limit = WalkControl.nextCheck(control, steps, maxSteps);
+        while (true) {
+            while (visited < n && steps < limit) {
+                int next = nextVertex(graph, current, previous, rand);
+                previous = current;
+                current = next;
+                steps++;
+                int word = current >>> 6;
+                long bit = 1L << current;
+                if ((seen[word] & bit) == 0) {
+                    seen[word] |= bit;
+                    visited++;
+                    if (recorder != null) {
+                        recorder.visit(current, steps, visited);
+                    }
+                }
             }
-            // Update the previous node before moving to the next.
-            previous = current;
-            // Choose the next node randomly from the (potentially modified) neighbor list.
-            current = neighbors.get(rand.nextInt(neighbors.size()));
-            // If the new node is unvisited, mark it as seen.
-            if (!seen[current]) {
-                seen[current] = true;
-                visited++;
+            if (visited == n || steps >= maxSteps) {
+                return new CoverResult(steps, visited, n);
             }
-            steps++;
+            if (!control.proceed(steps, visited)) {
+                return new CoverResult(steps, visited, n, control.stopReason());
+            }
+            limit = WalkControl.nextCheck(control, steps, maxSteps);
         }
-        return steps;
     }
-}
 
+    /**
+     * Draws among the edges of current, less those back to previous: one of them under the edge
+     * rule, all of them under the vertex rule. A dead end sends the walker back.
+     */
+    @Override
+    public int nextVertex(Adjacency graph, int current, int previous, RandomGenerator rand) {
+        int degree = graph.degree(current);
+        if (previous == -1) {
+            return graph.neighbor(current, rand.nextInt(degree));
+        }
+        int excluded = backtracking == Backtracking.EDGE ? 1 : graph.multiplicity(current, previous);
+        return degree == excluded
+                ? previous
+                : graph.neighborSkipping(current, previous, excluded, rand.nextInt(degree - excluded));
+    }
+
+    public CoverResult cover(EdgeIndexedGraph graph, int start, RandomGenerator rand, long maxSteps) {
+        return cover(graph, start, rand, maxSteps, null, null);
+    }
+
+    public CoverResult cover(EdgeIndexedGraph graph, int start, RandomGenerator rand, long maxSteps,
+                             CoverageRecorder recorder, WalkControl control) {
+        if (recorder != null) {
+            recorder.start(graph.vertexCount(), start);
+        }
+        if (control != null) {
+            control.start();
+        }
+        int n = graph.vertexCount();
+        // If the graph is trivial, the cover time is 0.
+        if (n <= 1) {
+            return new CoverResult(0, n, n);
+        }
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] reverse = graph.reverse();
+        int[] runStart = graph.runStart();
+        int[] runEnd = graph.runEnd();
+        boolean edgeRule = backtracking == Backtracking.EDGE;
+        // Start at the given node and take the first step freely.
+        int current = start;
+        // Visited nodes carry this walk's epoch in the thread's reusable stamp array.
+        WalkerContext context = WalkerContext.current();
+        int epoch = context.begin(n);
+        int[] stamps = context.stamps();
+        try {
+            stamps[current] = epoch;
+            int visited = 1;
+            long steps = 0;
+            // 'arrival' is the slot we walked over to reach 'current'.
+            int arrival = offsets[current] + rand.nextInt(offsets[current + 1] - offsets[current]);
+            long limit = WalkControl.nextCheck(control, steps, maxSteps);
+            while (true) {
+                while (steps < limit) {
+                    current = targets[arrival];
+                    steps++;
+                    // If the new node is unvisited, mark it as seen.
+                    if (stamps[current] != epoch) {
+                        stamps[current] = epoch;
+                        visited++;
+                        if (recorder != null) {
+                            recorder.visit(current, steps, visited);
+                        }
+                        if (visited == n) {
+                            break;
+                        }
+                    }
+                    arrival = nextSlot(offsets, targets, reverse, runStart, runEnd, arrival, edgeRule, rand);
+                }
+                // Between chunks 'arrival' already holds the next slot, so the walk resumes exactly where it paused.
+                if (visited == n || steps >= maxSteps) {
+                    return new CoverResult(steps, visited, n);
+                }
+                if (!control.proceed(steps, visited)) {
+                    return new CoverResult(steps, visited, n, control.stopReason());
+                }
+                limit = WalkControl.nextCheck(control, steps, maxSteps);
+            }
+        } finally {
+            context.end();
+        }
+    }
+
+    /**
+     * Chooses the slot to leave by after arriving over slot 'arrival'.
+     * Shared with {@link MultiWalkerRandomWalk} and {@link WalkBatch} so every engine applies exactly the same rule.
+     */
+    static int nextSlot(int[] offsets, int[] targets, int[] reverse, int[] runStart, int[] runEnd, int arrival,
+                        boolean edgeRule, RandomGenerator rand) {
+        int current = targets[arrival];
+        int start = offsets[current];
+        int end = offsets[current + 1];
+        // The slot at 'current' that leads back over the edge we arrived on.
+        int back = reverse[arrival];
+        // Slots [lo, hi) are the ones left out of the draw: under the vertex rule the whole run
+        // of parallel copies back to the previous node.
+        int lo = edgeRule ? back : runStart[back];
+        int hi = edgeRule ? back + 1 : runEnd[back];
+        int allowed = (end - start) - (hi - lo);
+        if (allowed == 0) {
+            // Dead end: the only way on is back.
+            return back;
+        }
+        int slot = start + rand.nextInt(allowed);
+        return slot >= lo ? slot + (hi - lo) : slot;
+    }
+}
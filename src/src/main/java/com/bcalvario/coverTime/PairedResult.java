@@ -0,0 +1,24 @@
+package com.bcalvario.coverTime;
+
+import java.util.List;
+
+/**
+ * Outcome of a paired experiment, in which every strategy walked the same graphs from the same starts.
+ *
+ * @param type         Graph type of every run.
+ * @param n            Number of nodes.
+ * @param c            Number of edges.
+ * @param strategies   The strategies compared; the first one is the baseline.
+ * @param stats        Cover-time statistics of every strategy, in the same order.
+ * @param versusFirst  For every strategy after the first, its paired statistics with the baseline as x.
+ * @param strategyNanos Share of the wall-clock time of every strategy: its walks plus an equal
+ *                      share of generating the graphs. They add up to elapsedNanos.
+ * @param elapsedNanos Wall-clock time the runs took.
+ */
+public record PairedResult(GraphType type, int n, int c, List<WalkStrategy> strategies, List<CoverTimeStats> stats,
+                           List<PairedStats> versusFirst, List<Long> strategyNanos, long elapsedNanos) {
+
+    public long runs() {
+        return stats.get(0).count();
+    }
+}
@@ -0,0 +1,126 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Streaming statistics for paired samples (x, y): the cover times of a baseline strategy and of
+ * another strategy, measured on the same graph from the same start.
+ *
+ * Keeps both means, both variances and the covariance with Welford's method, so the difference
+ * and the ratio of the means get confidence intervals that use the pairing. Accumulators from
+ * parallel workers are combined with {@link #merge}, like {@link CoverTimeStats}.
+ */
+public final class PairedStats {
+    private long count;
+    private double meanX;
+    private double meanY;
+    private double m2x;
+    private double m2y;
+    private double cxy;
+
+    public void add(double x, double y) {
+        count++;
+        double dx = x - meanX;
+        meanX += dx / count;
+        double dy = y - meanY;
+        meanY += dy / count;
+        m2x += dx * (x - meanX);
+        m2y += dy * (y - meanY);
+        cxy += dx * (y - meanY);
+    }
+
+    /**
+     * Folds another accumulator into this one, as if its pairs had been added here.
+     */
+    public void merge(PairedStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            meanX = other.meanX;
+            meanY = other.meanY;
+            m2x = other.m2x;
+            m2y = other.m2y;
+            cxy = other.cxy;
+        } else {
+            long total = count + other.count;
+            double dx = other.meanX - meanX;
+            double dy = other.meanY - meanY;
+            double w = (double) count * other.count / total;
+            meanX += dx * other.count / total;
+            meanY += dy * other.count / total;
+            m2x += other.m2x + dx * dx * w;
+            m2y += other.m2y + dy * dy * w;
+            cxy += other.cxy + dx * dy * w;
+        }
+        count += other.count;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double meanX() {
+        return count == 0 ? Double.NaN : meanX;
+    }
+
+    public double meanY() {
+        return count == 0 ? Double.NaN : meanY;
+    }
+
+    public double covariance() {
+        return count < 2 ? Double.NaN : cxy / (count - 1);
+    }
+
+    public double correlation() {
+        return cxy / Math.sqrt(m2x * m2y);
+    }
+
+    /**
+     * @return mean(y) - mean(x).
+     */
+    public double meanDifference() {
+        return meanY() - meanX();
+    }
+
+    /**
+     * @return Half-width of the 95% CI of the mean difference, from the variance of y - x.
+     */
+    public double differenceCiHalfWidth95() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return CoverTimeStats.t975(count - 1) * Math.sqrt(differenceVariance() / count);
+    }
+
+    /**
+     * @return mean(y) / mean(x).
+     */
+    public double ratio() {
+        return meanY() / meanX();
+    }
+
+    /**
+     * @return Half-width of the 95% CI of the ratio of means, by the delta method.
+     */
+    public double ratioCiHalfWidth95() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double r = ratio();
+        double varX = m2x / (count - 1);
+        double varY = m2y / (count - 1);
+        double var = (varY - 2 * r * covariance() + r * r * varX) / (meanX * meanX * count);
+        return CoverTimeStats.t975(count - 1) * Math.sqrt(Math.max(0, var));
+    }
+
+    /**
+     * How many independent (unpaired) runs per strategy one paired run is worth for estimating the
+     * difference: Var(x) + Var(y) over Var(y - x). Above 1 the pairing is saving compute.
+     */
+    public double varianceReduction() {
+        return (m2x + m2y) / Math.max(Double.MIN_VALUE, m2x + m2y - 2 * cxy);
+    }
+
+    private double differenceVariance() {
+        return Math.max(0, (m2x + m2y - 2 * cxy) / (count - 1));
+    }
+}
@@ -0,0 +1,496 @@
+package com.bcalvario.coverTime;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs the cover-time experiments of one (GraphType, strategy) configuration on a fork-join pool.
+ *
+ * Every run gets its own {@link FastRandom}, seeded from the master seed, the configuration and the
+ * run index alone. Which thread executes a run therefore never changes its result, and the
+ * parallel total is identical to the serial total for any pool size.
+ * Each leaf task collects its runs in its own {@link CoverTimeStats} and the partial results are
+ * merged up the fork-join tree, so workers never share an accumulator.
+ *
+ * {@link #runAdaptive} instead keeps scheduling batches of runs until every configuration's
+ * confidence interval is narrow enough, moving threads to the configurations still running.
+ *
+ * {@link #runPaired} compares strategies with common random numbers: every strategy walks the
+ * same graph from the same start, so the between-graph variance cancels out of the comparison.
+ *
+ * {@link #runBounded} gives every run a wall-clock limit, so one run that is slow to cover
+ * cannot hold up the others.
+ */
+public final class ParallelExperimentRunner implements AutoCloseable {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    // A confidence interval from fewer runs than this is too noisy to stop on.
+    private static final int MIN_ADAPTIVE_RUNS = 10;
+
+    private final ForkJoinPool pool;
+    private final long masterSeed;
+
+    /**
+     * @param parallelism Number of worker threads.
+     * @param masterSeed  Seed every per-run random stream is split from.
+     */
+    public ParallelExperimentRunner(int parallelism, long masterSeed) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.masterSeed = masterSeed;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Spreads the runs of one configuration across the pool.
+     * Each run regenerates a graph of the given type and measures its cover time.
+     */
+    public ExperimentResult run(ExperimentConfig config, int runs) {
+        long configSeed = configSeed(masterSeed, config);
+        long start = System.nanoTime();
+        CoverTimeStats stats = pool.invoke(new RunRange(config, configSeed, 0, runs,
+                Math.max(1, runs / (4 * pool.getParallelism()))));
+        return new ExperimentResult(stats, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs the same configuration one run after another on the calling thread.
+     * It uses the same per-run seeds as {@link #run}, so both paths see exactly the same samples.
+     */
+    public ExperimentResult runSerial(ExperimentConfig config, int runs) {
+        long start = System.nanoTime();
+        CoverTimeStats stats = runBatch(config, configSeed(masterSeed, config), 0, runs);
+        return new ExperimentResult(stats, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs every configuration until the 95% CI half-width of its mean cover time is at most
+     * targetRelativeCi times the mean, or until it has used maxRuns runs.
+     *
+     * Runs are scheduled in batches. Up to two batches per worker are kept in flight across all
+     * configurations, and each free slot goes to the unfinished configuration with the fewest
+     * runs scheduled so far. Once a configuration converges, its share of the pool moves to the
+     * ones still running. Every run keeps its fixed per-run seed. Finished batches are merged in
+     * run order only, and convergence is tested after each of them, so a configuration stops
+     * after the same runs whatever the timing; batches past that point are dropped.
+     *
+     * @return The result of every configuration, in the order given. The elapsed time is measured
+     *         from the start of the call until the configuration finished.
+     */
+    public Map<ExperimentConfig, ExperimentResult> runAdaptive(List<ExperimentConfig> configs,
+                                                               double targetRelativeCi, int maxRuns, int batchSize) {
+        List<AdaptiveState> states = configs.stream()
+                .map(config -> new AdaptiveState(config, configSeed(masterSeed, config)))
+                .toList();
+        CompletionService<FinishedBatch> completion = new ExecutorCompletionService<>(pool);
+        int maxInFlight = 2 * pool.getParallelism();
+        int inFlight = 0;
+        long start = System.nanoTime();
+        while (true) {
+            while (inFlight < maxInFlight) {
+                AdaptiveState next = null;
+                for (AdaptiveState state : states) {
+                    if (!state.finished && state.scheduled < maxRuns
+                            && (next == null || state.scheduled < next.scheduled)) {
+                        next = state;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                AdaptiveState state = next;
+                int from = state.scheduled;
+                int to = Math.min(maxRuns, from + batchSize);
+                state.scheduled = to;
+                completion.submit(() -> new FinishedBatch(state, from, to,
+                        runBatch(state.config, state.configSeed, from, to)));
+                inFlight++;
+            }
+            if (inFlight == 0) {
+                break;
+            }
+            FinishedBatch batch = take(completion);
+            inFlight--;
+            AdaptiveState state = batch.state;
+            if (state.finished) {
+                continue;
+            }
+            // Merge the batches that now continue the runs merged so far, and nothing after a gap.
+            state.pending.put(batch.from, batch);
+            FinishedBatch next;
+            while (!state.finished && (next = state.pending.remove(state.merged)) != null) {
+                state.stats.merge(next.stats);
+                state.merged = next.to;
+                if (state.stats.count() >= MIN_ADAPTIVE_RUNS
+                        && state.stats.relativeCiHalfWidth95() <= targetRelativeCi) {
+                    state.converged = true;
+                }
+                if (state.converged || state.merged >= maxRuns) {
+                    state.finished = true;
+                    state.pending.clear();
+                    state.elapsedNanos = System.nanoTime() - start;
+                }
+            }
+        }
+        Map<ExperimentConfig, ExperimentResult> results = new LinkedHashMap<>();
+        for (AdaptiveState state : states) {
+            results.put(state.config, new ExperimentResult(state.stats, state.elapsedNanos));
+        }
+        return results;
+    }
+
+    /**
+     * Runs a paired comparison: each run generates one graph, one start node and one walk seed
+     * from its per-run seed, and every strategy walks that instance. The difference and ratio of
+     * each strategy against the first are then estimated from the pairs. Their confidence
+     * intervals are usually much narrower than those of independent runs.
+     */
+    public PairedResult runPaired(GraphType type, int n, int c, List<WalkStrategy> strategies, int runs) {
+        long configSeed = configSeed(masterSeed, type + "/" + n + "/" + c + "/paired");
+        long start = System.nanoTime();
+        PairedBatch batch = pool.invoke(new PairedRange(type, n, c, strategies, configSeed, 0, runs,
+                Math.max(1, runs / (4 * pool.getParallelism()))));
+        long elapsed = System.nanoTime() - start;
+        // Split the wall-clock time in proportion to the time each strategy was busy.
+        double busy = 0;
+        for (long nanos : batch.nanos) {
+            busy += nanos;
+        }
+        List<Long> strategyNanos = new ArrayList<>(strategies.size());
+        for (long nanos : batch.nanos) {
+            strategyNanos.add(busy == 0 ? elapsed / strategies.size() : Math.round(elapsed * (nanos / busy)));
+        }
+        return new PairedResult(type, n, c, List.copyOf(strategies), List.of(batch.stats), List.of(batch.versusFirst),
+                strategyNanos, elapsed);
+    }
+
+    /**
+     * Runs one configuration with a wall-clock limit of timeout on every walk. A run that times out
+     * is re-queued behind all waiting runs with twice its previous limit, and abandoned once it has
+     * timed out maxAttempts times. Every attempt of a run uses the run's fixed seed, so a run that
+     * completes has the same cover time it has in {@link #run}.
+     *
+     * Abandoned runs are left out of the statistics. The slowest runs are the ones most likely to
+     * be abandoned, which biases the mean down, so the result lists them.
+     */
+    public BoundedResult runBounded(ExperimentConfig config, int runs, Duration timeout, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("need at least one attempt per run");
+        }
+        long configSeed = configSeed(masterSeed, config);
+        CompletionService<BoundedAttempt> completion = new ExecutorCompletionService<>(pool);
+        // Waiting attempts as (run, attempt); re-queued runs go to the back.
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        for (int run = 0; run < runs; run++) {
+            queue.add(new int[]{run, 0});
+        }
+        CoverTimeStats stats = new CoverTimeStats();
+        List<Integer> abandoned = new ArrayList<>();
+        int requeued = 0;
+        int maxInFlight = 2 * pool.getParallelism();
+        int inFlight = 0;
+        long start = System.nanoTime();
+        while (!queue.isEmpty() || inFlight > 0) {
+            while (inFlight < maxInFlight && !queue.isEmpty()) {
+                int[] next = queue.poll();
+                int run = next[0];
+                int attempt = next[1];
+                WalkControl control = new WalkControl(timeout.multipliedBy(1L << Math.min(attempt, 20)));
+                completion.submit(() -> new BoundedAttempt(run, attempt,
+                        boundedRun(config, runSeed(configSeed, run), control)));
+                inFlight++;
+            }
+            BoundedAttempt done = take(completion);
+            inFlight--;
+            if (done.result.covered()) {
+                stats.add(done.result.steps());
+            } else if (done.attempt + 1 < maxAttempts) {
+                queue.add(new int[]{done.run, done.attempt + 1});
+                requeued++;
+            } else {
+                abandoned.add(done.run);
+            }
+        }
+        abandoned.sort(null);
+        return new BoundedResult(new ExperimentResult(stats, System.nanoTime() - start), requeued,
+                List.copyOf(abandoned));
+    }
+
+    /**
+     * One run of {@link #runBounded}: the same graph and walk as {@link #singleRun}, under control.
+     */
+    static CoverResult boundedRun(ExperimentConfig config, long seed, WalkControl control) {
+        RandomGenerator rng = runRandom(seed);
+        CsrGraph g = config.type().generateCsr(config.n(), config.c(), rng);
+        return config.strategy().cover(g, rng, Long.MAX_VALUE, null, control);
+    }
+
+    private record BoundedAttempt(int run, int attempt, CoverResult result) {
+    }
+
+    private static <T> T take(CompletionService<T> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for runs", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a run failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Generates one graph and walks it, both driven by a random stream private to this run.
+     */
+    static int singleRun(ExperimentConfig config, long seed) {
+        RandomGenerator rng = runRandom(seed);
+        CsrGraph g = config.type().generateCsr(config.n(), config.c(), rng);
+        return config.strategy().coverTime(g, rng);
+    }
+
+    /**
+     * Runs [from, to) of one configuration on the calling thread.
+     */
+    static CoverTimeStats runBatch(ExperimentConfig config, long configSeed, int from, int to) {
+        CoverTimeStats stats = new CoverTimeStats();
+        for (int run = from; run < to; run++) {
+            stats.add(singleRun(config, runSeed(configSeed, run)));
+        }
+        return stats;
+    }
+
+    /**
+     * Walks one shared instance with every strategy.
+     * @param nanos Gets the time of every strategy's walk added, plus an equal share of generating the graph.
+     * @return The cover time of every strategy, in order.
+     */
+    static long[] pairedRun(GraphType type, int n, int c, List<WalkStrategy> strategies, long seed, long[] nanos) {
+        long t0 = System.nanoTime();
+        RandomGenerator rng = runRandom(seed);
+        CsrGraph g = type.generateCsr(n, c, rng);
+        int start = rng.nextInt(n);
+        // Every strategy also gets the same walk stream, the cheapest common random number of all.
+        long walkSeed = rng.nextLong();
+        long generation = (System.nanoTime() - t0) / strategies.size();
+        long[] coverTimes = new long[strategies.size()];
+        for (int i = 0; i < coverTimes.length; i++) {
+            long t1 = System.nanoTime();
+            CoverResult result = strategies.get(i).cover(g, start, runRandom(walkSeed), Integer.MAX_VALUE);
+            nanos[i] += generation + (System.nanoTime() - t1);
+            if (!result.covered()) {
+                throw new IllegalStateException("cover time exceeds " + Integer.MAX_VALUE + " steps");
+            }
+            coverTimes[i] = result.steps();
+        }
+        return coverTimes;
+    }
+
+    /**
+     * Derives the seed of a configuration so different configurations get unrelated streams.
+     */
+    static long configSeed(long masterSeed, ExperimentConfig config) {
+        return configSeed(masterSeed, config.key());
+    }
+
+    static long configSeed(long masterSeed, String key) {
+        long h = mix(masterSeed);
+        for (int i = 0; i < key.length(); i++) {
+            h = mix(h ^ key.charAt(i));
+        }
+        return h;
+    }
+
+    /**
+     * Seed of one run, a SplitMix64 step away from its configuration seed.
+     */
+    static long runSeed(long configSeed, int run) {
+        return mix(configSeed + (run + 1L) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Names the random streams of {@link #runRandom} and the seeds they are derived with. Change it
+     * whenever either changes, since the same seed then gives different results.
+     */
+    public static final String STREAMS = "xoshiro256++ (FastRandom), SplitMix64 run seeds";
+
+    /**
+     * The random stream of one run. It is private to the run, so no two threads ever share a
+     * generator and none needs to be thread-safe.
+     */
+    static RandomGenerator runRandom(long seed) {
+        return new FastRandom(seed);
+    }
+
+    // SplitMix64 finaliser: a bijective mix that spreads nearby inputs across all 64 bits.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Collects the cover times of runs [from, to) by splitting the range in half until it is small.
+     */
+    private static final class RunRange extends RecursiveTask<CoverTimeStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final ExperimentConfig config;
+        private final long configSeed;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        RunRange(ExperimentConfig config, long configSeed, int from, int to, int threshold) {
+            this.config = config;
+            this.configSeed = configSeed;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected CoverTimeStats compute() {
+            if (to - from <= threshold) {
+                return runBatch(config, configSeed, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RunRange left = new RunRange(config, configSeed, from, mid, threshold);
+            RunRange right = new RunRange(config, configSeed, mid, to, threshold);
+            left.fork();
+            CoverTimeStats stats = right.compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    /**
+     * Paired runs [from, to), split in half until small like {@link RunRange}.
+     */
+    private static final class PairedRange extends RecursiveTask<PairedBatch> {
+        private static final long serialVersionUID = 1L;
+
+        private final GraphType type;
+        private final int n;
+        private final int c;
+        private final List<WalkStrategy> strategies;
+        private final long configSeed;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        PairedRange(GraphType type, int n, int c, List<WalkStrategy> strategies, long configSeed, int from, int to,
+                    int threshold) {
+            this.type = type;
+            this.n = n;
+            this.c = c;
+            this.strategies = strategies;
+            this.configSeed = configSeed;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected PairedBatch compute() {
+            if (to - from <= threshold) {
+                PairedBatch batch = new PairedBatch(strategies.size());
+                for (int run = from; run < to; run++) {
+                    batch.add(pairedRun(type, n, c, strategies, runSeed(configSeed, run), batch.nanos));
+                }
+                return batch;
+            }
+            int mid = (from + to) >>> 1;
+            PairedRange left = new PairedRange(type, n, c, strategies, configSeed, from, mid, threshold);
+            PairedRange right = new PairedRange(type, n, c, strategies, configSeed, mid, to, threshold);
+            left.fork();
+            PairedBatch batch = right.compute();
+            batch.merge(left.join());
+            return batch;
+        }
+    }
+
+    /**
+     * Per-strategy and versus-baseline statistics of some paired runs. versusFirst[i - 1] compares
+     * strategy i with the baseline.
+     */
+    private static final class PairedBatch {
+        final CoverTimeStats[] stats;
+        final PairedStats[] versusFirst;
+        // Time each strategy was busy, see pairedRun.
+        final long[] nanos;
+
+        PairedBatch(int strategies) {
+            stats = new CoverTimeStats[strategies];
+            versusFirst = new PairedStats[strategies - 1];
+            nanos = new long[strategies];
+            for (int i = 0; i < strategies; i++) {
+                stats[i] = new CoverTimeStats();
+            }
+            for (int i = 0; i < versusFirst.length; i++) {
+                versusFirst[i] = new PairedStats();
+            }
+        }
+
+        void add(long[] coverTimes) {
+            for (int i = 0; i < coverTimes.length; i++) {
+                stats[i].add(coverTimes[i]);
+            }
+            for (int i = 1; i < coverTimes.length; i++) {
+                versusFirst[i - 1].add(coverTimes[0], coverTimes[i]);
+            }
+        }
+
+        void merge(PairedBatch other) {
+            for (int i = 0; i < stats.length; i++) {
+                stats[i].merge(other.stats[i]);
+                nanos[i] += other.nanos[i];
+            }
+            for (int i = 0; i < versusFirst.length; i++) {
+                versusFirst[i].merge(other.versusFirst[i]);
+            }
+        }
+    }
+
+    /**
+     * Scheduling state of one configuration in {@link #runAdaptive}; only touched by the calling thread.
+     */
+    private static final class AdaptiveState {
+        final ExperimentConfig config;
+        final long configSeed;
+        final CoverTimeStats stats = new CoverTimeStats();
+        // Finished batches waiting for an earlier one, by first run.
+        final Map<Integer, FinishedBatch> pending = new HashMap<>();
+        int scheduled;
+        // Runs [0, merged) are in stats.
+        int merged;
+        boolean converged;
+        // Converged or out of runs; later batches are dropped.
+        boolean finished;
+        long elapsedNanos;
+
+        AdaptiveState(ExperimentConfig config, long configSeed) {
+            this.config = config;
+            this.configSeed = configSeed;
+        }
+    }
+
+    private record FinishedBatch(AdaptiveState state, int from, int to, CoverTimeStats stats) {
+    }
+}
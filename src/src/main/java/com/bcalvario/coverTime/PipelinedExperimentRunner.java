@@ -0,0 +1,301 @@
+package com.bcalvario.coverTime;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs experiments as a two-stage pipeline: generator threads build graphs into a bounded queue
+ * and walker threads take them off and walk them.
+ *
+ * The worker threads are not tied to a stage. Worker i generates while i is below the current
+ * generator count and walks otherwise. A controller compares the mean time of a generation with
+ * the mean time of a walk every {@link #ADJUST_MILLIS} ms and sets the generator count to the
+ * matching share of the threads. Cheap generation with expensive walks moves threads to walking,
+ * and dense graphs with short walks move them back.
+ *
+ * The queue is the backpressure. A generator that finds it full walks a queued graph itself
+ * instead of building more, so at most capacity + threads graphs exist at any time and the
+ * pipeline cannot deadlock, even on a single thread.
+ *
+ * A run keeps the random stream of {@link ParallelExperimentRunner#singleRun}: the generator
+ * seeds it, builds the graph from it and hands the stream on with the graph, and the walker
+ * continues it. The results equal those of the other runners for the same master seed.
+ */
+public final class PipelinedExperimentRunner implements AutoCloseable {
+    private static final long ADJUST_MILLIS = 50;
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final long masterSeed;
+    private final int queueCapacity;
+
+    private final StageCounters generation = new StageCounters();
+    private final StageCounters walking = new StageCounters();
+    private volatile int generators;
+    private volatile boolean aborted;
+
+    /**
+     * Per-stage timings of the runs so far.
+     *
+     * @param stage      "generate" or "walk".
+     * @param items      Graphs the stage has finished.
+     * @param busyNanos  Time spent doing the stage's work, summed over threads.
+     * @param stalls     Generate: times the queue was full. Walk: times it was empty.
+     * @param stallNanos Time walkers spent waiting for a graph; generators never wait.
+     * @param threads    Threads assigned to the stage when the snapshot was taken.
+     */
+    public record StageMetrics(String stage, long items, long busyNanos, long stalls, long stallNanos, int threads) {
+
+        public double meanMicros() {
+            return items == 0 ? 0 : busyNanos / 1e3 / items;
+        }
+    }
+
+    /**
+     * @param threads       Number of worker threads shared by both stages.
+     * @param masterSeed    Seed every per-run random stream is split from.
+     * @param queueCapacity Most graphs waiting between the stages.
+     */
+    public PipelinedExperimentRunner(int threads, long masterSeed, int queueCapacity) {
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.masterSeed = masterSeed;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Runs every configuration runsPerConfig times through the pipeline.
+     * Runs of different configurations are interleaved, so both stages always see a mix of costs.
+     * @return The result of every configuration, in the order given. The elapsed time of a
+     *         configuration is the generation plus walk time of its runs, summed over threads.
+     */
+    public Map<ExperimentConfig, ExperimentResult> run(List<ExperimentConfig> configs, int runsPerConfig) {
+        int k = configs.size();
+        long[] configSeeds = new long[k];
+        for (int i = 0; i < k; i++) {
+            configSeeds[i] = ParallelExperimentRunner.configSeed(masterSeed, configs.get(i));
+        }
+        long total = (long) k * runsPerConfig;
+        BlockingQueue<Job> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicLong nextTicket = new AtomicLong();
+        LongAdder finished = new LongAdder();
+        generation.reset();
+        walking.reset();
+        aborted = false;
+        // Start with half the threads on each stage, at least one generating.
+        generators = Math.max(1, threads / 2);
+
+        ScheduledExecutorService controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pipeline-controller");
+            t.setDaemon(true);
+            return t;
+        });
+        controller.scheduleAtFixedRate(this::adjust, ADJUST_MILLIS, ADJUST_MILLIS, TimeUnit.MILLISECONDS);
+
+        List<Future<WorkerResults>> futures = new ArrayList<>(threads);
+        try {
+            for (int id = 0; id < threads; id++) {
+                int worker = id;
+                futures.add(workers.submit(() -> work(worker, configs, configSeeds, total,
+                        queue, nextTicket, finished)));
+            }
+            CoverTimeStats[] stats = new CoverTimeStats[k];
+            long[] nanos = new long[k];
+            for (int i = 0; i < k; i++) {
+                stats[i] = new CoverTimeStats();
+            }
+            for (Future<WorkerResults> f : futures) {
+                WorkerResults r = get(f);
+                for (int i = 0; i < k; i++) {
+                    stats[i].merge(r.stats[i]);
+                    nanos[i] += r.nanos[i];
+                }
+            }
+            Map<ExperimentConfig, ExperimentResult> results = new LinkedHashMap<>();
+            for (int i = 0; i < k; i++) {
+                results.put(configs.get(i), new ExperimentResult(stats[i], nanos[i]));
+            }
+            return results;
+        } finally {
+            controller.shutdownNow();
+            for (Future<WorkerResults> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return Generation and walk metrics of the current or last run, in that order.
+     */
+    public List<StageMetrics> metrics() {
+        int g = generators;
+        return List.of(generation.snapshot("generate", g), walking.snapshot("walk", threads - g));
+    }
+
+    private WorkerResults work(int id, List<ExperimentConfig> configs, long[] configSeeds, long total,
+                               BlockingQueue<Job> queue, AtomicLong nextTicket, LongAdder finished)
+            throws InterruptedException {
+        try {
+            return workLoop(id, configs, configSeeds, total, queue, nextTicket, finished);
+        } catch (RuntimeException | Error e) {
+            // Otherwise the other workers would wait forever for runs that can no longer finish.
+            aborted = true;
+            throw e;
+        }
+    }
+
+    private WorkerResults workLoop(int id, List<ExperimentConfig> configs, long[] configSeeds, long total,
+                                   BlockingQueue<Job> queue, AtomicLong nextTicket, LongAdder finished)
+            throws InterruptedException {
+        int k = configs.size();
+        WorkerResults results = new WorkerResults(k);
+        while (!aborted && finished.sum() < total) {
+            if (id < generators && nextTicket.get() < total) {
+                long ticket = nextTicket.getAndIncrement();
+                if (ticket >= total) {
+                    continue;
+                }
+                // Ticket order interleaves configurations: run 0 of each, then run 1 of each, ...
+                int config = (int) (ticket % k);
+                int run = (int) (ticket / k);
+                long t0 = System.nanoTime();
+                RandomGenerator rng = ParallelExperimentRunner.runRandom(ParallelExperimentRunner.runSeed(configSeeds[config], run));
+                ExperimentConfig c = configs.get(config);
+                CsrGraph graph = c.type().generateCsr(c.n(), c.c(), rng);
+                long genNanos = System.nanoTime() - t0;
+                generation.record(genNanos);
+                Job job = new Job(config, graph, rng, genNanos);
+                while (!queue.offer(job)) {
+                    // Full: the walkers are behind, so help them rather than build more.
+                    generation.stalls.increment();
+                    Job other = queue.poll();
+                    if (other != null) {
+                        walk(other, configs, results, finished);
+                    }
+                }
+            } else {
+                long w0 = System.nanoTime();
+                Job job = queue.poll(1, TimeUnit.MILLISECONDS);
+                if (job == null) {
+                    walking.stalls.increment();
+                    walking.stallNanos.add(System.nanoTime() - w0);
+                    continue;
+                }
+                walk(job, configs, results, finished);
+            }
+        }
+        return results;
+    }
+
+    private void walk(Job job, List<ExperimentConfig> configs, WorkerResults results, LongAdder finished) {
+        long t0 = System.nanoTime();
+        int coverTime = configs.get(job.config).strategy().coverTime(job.graph, job.rng);
+        long walkNanos = System.nanoTime() - t0;
+        walking.record(walkNanos);
+        results.stats[job.config].add(coverTime);
+        results.nanos[job.config] += job.genNanos + walkNanos;
+        finished.increment();
+    }
+
+    /**
+     * Sets the generator count to the generation share of the per-run time measured since the last call.
+     * One thread always keeps walking when there is more than one.
+     */
+    private void adjust() {
+        long gItems = generation.items.sum();
+        long gBusy = generation.busyNanos.sum();
+        long wItems = walking.items.sum();
+        long wBusy = walking.busyNanos.sum();
+        long dgItems = gItems - generation.lastItems;
+        long dwItems = wItems - walking.lastItems;
+        if (dgItems > 0 && dwItems > 0) {
+            double gen = (gBusy - generation.lastBusy) / (double) dgItems;
+            double walk = (wBusy - walking.lastBusy) / (double) dwItems;
+            int target = (int) Math.round(threads * gen / (gen + walk));
+            generators = Math.max(1, Math.min(Math.max(1, threads - 1), target));
+            generation.lastItems = gItems;
+            generation.lastBusy = gBusy;
+            walking.lastItems = wItems;
+            walking.lastBusy = wBusy;
+        }
+    }
+
+    private static WorkerResults get(Future<WorkerResults> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for runs", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a run failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * A generated graph waiting to be walked, with the random stream its walk continues.
+     */
+    private record Job(int config, CsrGraph graph, RandomGenerator rng, long genNanos) {
+    }
+
+    /**
+     * Results one worker collected; merged once the run is over, so workers never share them.
+     */
+    private static final class WorkerResults {
+        final CoverTimeStats[] stats;
+        final long[] nanos;
+
+        WorkerResults(int configs) {
+            stats = new CoverTimeStats[configs];
+            nanos = new long[configs];
+            for (int i = 0; i < configs; i++) {
+                stats[i] = new CoverTimeStats();
+            }
+        }
+    }
+
+    private static final class StageCounters {
+        final LongAdder items = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+        final LongAdder stalls = new LongAdder();
+        final LongAdder stallNanos = new LongAdder();
+        // Only touched by the controller thread.
+        long lastItems;
+        long lastBusy;
+
+        void record(long nanos) {
+            items.increment();
+            busyNanos.add(nanos);
+        }
+
+        void reset() {
+            items.reset();
+            busyNanos.reset();
+            stalls.reset();
+            stallNanos.reset();
+            lastItems = 0;
+            lastBusy = 0;
+        }
+
+        StageMetrics snapshot(String stage, int threads) {
+            return new StageMetrics(stage, items.sum(), busyNanos.sum(), stalls.sum(), stallNanos.sum(), threads);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Bounded-memory quantile estimator for non-negative sample values.
+ *
+ * Values are counted in logarithmic buckets: bucket i holds (gamma^(i-1), gamma^i], with
+ * gamma = (1 + a) / (1 - a) for relative accuracy a. Any quantile is then reported within a
+ * relative error of a, whatever the distribution. Memory is a fixed array of counts, and two
+ * sketches merge by adding their counts, so partial sketches from parallel workers combine
+ * without keeping any samples.
+ */
+public final class QuantileSketch {
+    /** Relative accuracy of the reported quantiles. */
+    public static final double RELATIVE_ACCURACY = 0.01;
+    // With a = 1% the top bucket starts near 5.8e17, far beyond any cover time we can simulate.
+    private static final int BUCKETS = 2048;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final long[] counts = new long[BUCKETS];
+    // Values <= 0 cannot be bucketed on a log scale.
+    private long zeroCount;
+    private long count;
+
+    public void add(long value) {
+        if (value <= 0) {
+            zeroCount++;
+        } else {
+            int i = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            counts[Math.min(Math.max(i, 0), BUCKETS - 1)]++;
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param q Quantile in [0, 1], e.g. 0.99 for the 99th percentile.
+     * @return The estimated quantile, or NaN if the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.min(Math.max(q, 0), 1) * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                // The midpoint of the bucket in relative terms, within a of every value in it.
+                return 2 * Math.pow(GAMMA, i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, BUCKETS - 1) / (GAMMA + 1);
+    }
+}
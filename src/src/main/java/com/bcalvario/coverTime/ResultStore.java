@@ -0,0 +1,223 @@
+package com.bcalvario.coverTime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Append-only CSV log of finished runs, so an interrupted sweep can resume where it stopped.
+ *
+ * Every line is one run: configuration key, run index, seed, cover time and wall time.
+ * Workers hand over the records of a whole chunk at once. A single writer thread drains all
+ * pending chunks, writes them in one go and fsyncs once per drained batch, so durability costs
+ * one fsync per batch and workers never wait on the disk. The queue is bounded, which applies
+ * backpressure if the disk falls behind.
+ *
+ * On open, the existing log is read back. A torn last line left by a crash is cut off before
+ * new records are appended.
+ *
+ * The first line names the random streams the runs were driven by. The same seed gives a
+ * different cover time under other streams, so a log written under other streams is refused
+ * instead of being mixed with new runs.
+ */
+public final class ResultStore implements AutoCloseable {
+    private static final String STREAMS_PREFIX = "# streams ";
+    private static final String HEADER = "key,run,seed,coverTime,wallNanos";
+    private static final int QUEUE_CHUNKS = 1024;
+    // Compared by identity, so it must be an instance nobody else can hand in.
+    private static final List<RunRecord> POISON = Collections.unmodifiableList(new ArrayList<>());
+
+    private final FileChannel channel;
+    private final Map<String, Map<Integer, RunRecord>> completed;
+    private final BlockingQueue<List<RunRecord>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+    private final Thread writer;
+    private volatile IOException failure;
+
+    /**
+     * One finished run.
+     *
+     * @param key       {@link ExperimentConfig#key()} of the configuration.
+     * @param run       Run index within the configuration.
+     * @param seed      Seed the run was driven by.
+     * @param coverTime Measured cover time.
+     * @param wallNanos Wall-clock time of the run.
+     */
+    public record RunRecord(String key, int run, long seed, long coverTime, long wallNanos) {
+    }
+
+    private ResultStore(FileChannel channel, Map<String, Map<Integer, RunRecord>> completed) {
+        this.channel = channel;
+        this.completed = completed;
+        this.writer = new Thread(this::drainLoop, "result-store-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens the log at file, creating it if needed, and loads the runs it already holds.
+     * @param streams Name of the random streams the runs are driven by, see
+     *                {@link ParallelExperimentRunner#STREAMS}.
+     * @throws IOException Also if the log was written under other streams.
+     */
+    public static ResultStore open(Path file, String streams) throws IOException {
+        Map<String, Map<Integer, RunRecord>> completed = new HashMap<>();
+        long validBytes = 0;
+        if (Files.exists(file)) {
+            long size = Files.size(file);
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                long offset = 0;
+                while ((line = in.readLine()) != null) {
+                    long next = offset + line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    if (next > size) {
+                        // No line terminator: the write of this line was cut short.
+                        break;
+                    }
+                    if (offset == 0 && !line.equals(STREAMS_PREFIX + streams)) {
+                        String found = line.startsWith(STREAMS_PREFIX) ? line.substring(STREAMS_PREFIX.length()) : "unnamed";
+                        throw new IOException(file + " holds runs of the random streams '" + found
+                                + "', not '" + streams + "'; move it away to start a new sweep");
+                    }
+                    if (offset == 0) {
+                        offset = next;
+                        continue;
+                    }
+                    RunRecord record = parse(line);
+                    if (record == null && !line.equals(HEADER)) {
+                        break;
+                    }
+                    if (record != null) {
+                        completed.computeIfAbsent(record.key(), k -> new HashMap<>()).put(record.run(), record);
+                    }
+                    offset = next;
+                }
+                validBytes = offset;
+            }
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Drop a partial line a crash may have left, and anything after it.
+        channel.truncate(validBytes);
+        channel.position(validBytes);
+        if (validBytes == 0) {
+            write(channel, STREAMS_PREFIX + streams + "\n" + HEADER + "\n");
+        }
+        return new ResultStore(channel, completed);
+    }
+
+    private static RunRecord parse(String line) {
+        String[] f = line.split(",");
+        if (f.length != 5) {
+            return null;
+        }
+        try {
+            return new RunRecord(f[0], Integer.parseInt(f[1]), Long.parseLong(f[2]),
+                    Long.parseLong(f[3]), Long.parseLong(f[4]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The runs of a configuration already in the log, by run index.
+     */
+    public Map<Integer, RunRecord> completedRuns(String key) {
+        return Collections.unmodifiableMap(completed.getOrDefault(key, Map.of()));
+    }
+
+    /**
+     * Queues the records of one chunk for writing. Blocks only if the writer is far behind.
+     */
+    public void append(List<RunRecord> records) {
+        checkFailure();
+        if (records.isEmpty()) {
+            return;
+        }
+        for (RunRecord r : records) {
+            if (r.key().indexOf(',') >= 0) {
+                throw new IllegalArgumentException("configuration key must not contain a comma: " + r.key());
+            }
+        }
+        try {
+            queue.put(List.copyOf(records));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing results", e);
+        }
+    }
+
+    /**
+     * Writes everything still queued, fsyncs and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            queue.put(POISON);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        checkFailure();
+    }
+
+    private void drainLoop() {
+        List<List<RunRecord>> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            StringBuilder sb = new StringBuilder();
+            for (List<RunRecord> chunk : batch) {
+                if (chunk == POISON) {
+                    closing = true;
+                }
+                for (RunRecord r : chunk) {
+                    sb.append(r.key()).append(',').append(r.run()).append(',').append(r.seed()).append(',')
+                            .append(r.coverTime()).append(',').append(r.wallNanos()).append('\n');
+                }
+            }
+            batch.clear();
+            if (failure == null && sb.length() > 0) {
+                try {
+                    write(channel, sb.toString());
+                    channel.force(false);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, String text) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private void checkFailure() {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("writing results failed", e);
+        }
+    }
+}
@@ -1,11 +1,6 @@
 package com.bcalvario.coverTime;
 
-import org.jgrapht.Graph;
-import org.jgrapht.Graphs;
-import org.jgrapht.graph.DefaultEdge;
-
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * A simple random walk strategy
@@ -14,44 +9,127 @@ import java.util.Random;
  *
  * @author Brandon Calvario
  */
-public class SimpleRandomWalk implements WalkStrategy {
+public class SimpleRandomWalk implements SingleWalkerStrategy {
     @Override
     public String getName() {
         return "Simple";
     }
 
     @Override
-    public int coverTime(Graph<Integer, DefaultEdge> graph, Random rand) {
+    public CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                             WalkControl control) {
+        if (recorder != null) {
+            recorder.start(graph.vertexCount(), start);
+        }
+        if (control != null) {
+            control.start();
+        }
+        if (graph instanceof CsrGraph csr) {
+            return coverArrays(csr, start, rand, maxSteps, recorder, control);
+        }
+        int n = graph.vertexCount();
+        if (n <= 1) {
+            return new CoverResult(0, n, n);
+        }
+        // Generic path for representations without raw arrays, e.g. a MappedGraph. It keeps a
+        // per-walk bitset rather than the thread's stamp array, since off-heap graphs can be huge.
+        CompressedMultigraph compressed = graph instanceof CompressedMultigraph cm ? cm : null;
+        int current = start;
+        long[] seen = new long[(n + 63) >>> 6];
+        seen[current >>> 6] |= 1L << current;
+        int visited = 1;
+        long steps = 0;
+        long limit = WalkControl.nextCheck(control, steps, maxSteps);
+        while (true) {
+            while (visited < n && steps < limit) {
+                current = compressed != null
+                        ? compressed.sample(current, rand)
+                        : graph.neighbor(current, rand.nextInt(graph.degree(current)));
+                steps++;
+                int word = current >>> 6;
+                long bit = 1L << current;
+                if ((seen[word] & bit) == 0) {
+                    seen[word] |= bit;
+                    visited++;
+                    if (recorder != null) {
+                        recorder.visit(current, steps, visited);
+                    }
+                }
+            }
+            if (visited == n || steps >= maxSteps) {
+                return new CoverResult(steps, visited, n);
+            }
+            if (!control.proceed(steps, visited)) {
+                return new CoverResult(steps, visited, n, control.stopReason());
+            }
+            limit = WalkControl.nextCheck(control, steps, maxSteps);
+        }
+    }
+
+    @Override
+    public int nextVertex(Adjacency graph, int current, int previous, RandomGenerator rand) {
+        if (graph instanceof CompressedMultigraph compressed) {
+            return compressed.sample(current, rand);
+        }
+        return graph.neighbor(current, rand.nextInt(graph.degree(current)));
+    }
+
+    private static CoverResult coverArrays(CsrGraph graph, int start, RandomGenerator rand, long maxSteps,
+                                           CoverageRecorder recorder, WalkControl control) {
         // Get the number of nodes (vertices) in the graph.
-        int n = graph.vertexSet().size();
+        int n = graph.vertexCount();
         // Base case: If the graph is trivial (has 0 or 1 node), no steps are needed.
         if (n <= 1) {
-            return 0;
-        }
-        // The walker starts at a randomly chosen node.
-        int current = rand.nextInt(n);
-        // A boolean array is used to efficiently track which nodes have been visited.
-        // The index corresponds to the node's integer label.
-        boolean[] seen = new boolean[n];
-        seen[current] = true;
-        int visited = 1;
-        int steps = 0;
-        // The loop continues until all nodes have been visited (visited == n).
-        while (visited < n) {
-            // Get the list of all neighbors of the current node.
-            List<Integer> neighbors = Graphs.neighborListOf(graph, current);
-            // Move to a new node by choosing a random neighbor. This is the core
-            // of the "simple" random walk strategy.
-            current = neighbors.get(rand.nextInt(neighbors.size()));
-            // Check if the newly visited node is one we haven't seen before.
-            if (!seen[current]) {
-                seen[current] = true;
-                visited++;
+            return new CoverResult(0, n, n);
+        }
+        // Neighbours of v live in targets[offsets[v]] .. targets[offsets[v + 1] - 1].
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        // The walker starts at the given node.
+        int current = start;
+        // The thread's reusable stamp array tracks which nodes have been visited: v is visited
+        // in this walk when stamps[v] == epoch, so nothing is allocated or cleared per walk on
+        // graphs of up to WalkerContext.RETAINED_NODES nodes.
+        WalkerContext context = WalkerContext.current();
+        int epoch = context.begin(n);
+        int[] stamps = context.stamps();
+        try {
+            stamps[current] = epoch;
+            int visited = 1;
+            long steps = 0;
+            // Without a control the inner loop runs to the budget in one go; with one it stops every
+            // checkInterval steps so the control can publish progress and stop the walk.
+            long limit = WalkControl.nextCheck(control, steps, maxSteps);
+            while (true) {
+                // The loop continues until all nodes have been visited or the chunk is spent.
+                while (visited < n && steps < limit) {
+                    // Move to a new node by choosing a random neighbor. This is the core
+                    // of the "simple" random walk strategy.
+                    int first = offsets[current];
+                    current = targets[first + rand.nextInt(offsets[current + 1] - first)];
+                    // Increment the step counter for every move made.
+                    steps++;
+                    // Check if the newly visited node is one we haven't seen before.
+                    if (stamps[current] != epoch) {
+                        stamps[current] = epoch;
+                        visited++;
+                        // The recorder is only consulted on first visits, never on the revisiting steps.
+                        if (recorder != null) {
+                            recorder.visit(current, steps, visited);
+                        }
+                    }
+                }
+                if (visited == n || steps >= maxSteps) {
+                    return new CoverResult(steps, visited, n);
+                }
+                if (!control.proceed(steps, visited)) {
+                    return new CoverResult(steps, visited, n, control.stopReason());
+                }
+                limit = WalkControl.nextCheck(control, steps, maxSteps);
             }
-            // Increment the step counter for every move made.
-            steps++;
+        } finally {
+            context.end();
         }
-        return steps; // Return the total steps taken to cover the graph.
     }
 }
 
@@ -0,0 +1,39 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A walk of one walker, which moves by one node per step. Such a walk is traced by asking for
+ * its next node step after step.
+ */
+public interface SingleWalkerStrategy extends WalkStrategy {
+    /**
+     * Takes one step of the walker. The next node has the same distribution as in
+     * {@link #cover}, though the kernels of cover may draw different numbers to pick it, so a
+     * trace and a cover from the same seed are equally likely walks rather than the same walk.
+     * @param previous The node the walker just left, or -1 before its first step.
+     */
+    int nextVertex(Adjacency graph, int current, int previous, RandomGenerator rand);
+
+    @Override
+    default WalkTrace trace(Adjacency graph, int start, RandomGenerator rand, int maxSteps) {
+        int n = graph.vertexCount();
+        WalkTrace.Builder trace = new WalkTrace.Builder(n, 1).add(start);
+        long[] seen = new long[(n + 63) >>> 6];
+        seen[start >>> 6] |= 1L << start;
+        int visited = 1;
+        int previous = -1;
+        int current = start;
+        for (int steps = 0; visited < n && steps < maxSteps; steps++) {
+            int next = nextVertex(graph, current, previous, rand);
+            previous = current;
+            current = next;
+            trace.add(current);
+            if ((seen[current >>> 6] & (1L << current)) == 0) {
+                seen[current >>> 6] |= 1L << current;
+                visited++;
+            }
+        }
+        return trace.build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.bcalvario.coverTime;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a full parameter sweep: every node count, every edge count {@link GraphUtil#cList} offers
+ * for it, every graph type and every strategy, all in one JVM.
+ *
+ * Each configuration is cut into chunks of runs, and the chunks are independent tasks on a
+ * work-stealing pool. Chunks are submitted longest first, by estimated cost, so the big
+ * configurations do not end up running alone at the end of the sweep. Runs use the same
+ * per-run seeds as {@link ParallelExperimentRunner}, so a sweep point reproduces the
+ * corresponding fixed-count run exactly. Progress and an ETA are printed while the sweep runs.
+ *
+ * With a {@link ResultStore} every finished run is logged, and runs already in the log (same
+ * configuration, run index and seed) are not repeated; their stored cover times are folded into
+ * the results instead. An interrupted sweep therefore resumes where it stopped.
+ */
+public final class SweepEngine implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final long masterSeed;
+    private final PrintStream progress;
+
+    /**
+     * @param parallelism Number of worker threads.
+     * @param masterSeed  Seed every per-run random stream is split from.
+     * @param progress    Where progress lines go, or null for a silent sweep.
+     */
+    public SweepEngine(int parallelism, long masterSeed, PrintStream progress) {
+        // asyncMode = FIFO local queues, so submitted chunks are taken roughly in submission order.
+        this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.masterSeed = masterSeed;
+        this.progress = progress;
+    }
+
+    /**
+     * Expands the grid nodeCounts x cList(n) x types x strategies into configurations.
+     */
+    public static List<ExperimentConfig> grid(int[] nodeCounts, List<GraphType> types, List<WalkStrategy> strategies) {
+        List<ExperimentConfig> configs = new ArrayList<>();
+        for (int n : nodeCounts) {
+            for (int c : GraphUtil.cList(n)) {
+                for (GraphType type : types) {
+                    for (WalkStrategy strategy : strategies) {
+                        configs.add(new ExperimentConfig(type, n, c, strategy));
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Rough relative cost of one run: an n log n walk plus generating c edges.
+     * Only the ordering of tasks depends on it.
+     */
+    static double estimatedRunCost(ExperimentConfig config) {
+        int n = config.n();
+        return n * Math.log(n + 1.0) + config.c();
+    }
+
+    /**
+     * Runs every configuration runsPerConfig times without logging.
+     */
+    public Map<ExperimentConfig, ExperimentResult> run(List<ExperimentConfig> configs, int runsPerConfig, int chunkRuns) {
+        return run(configs, runsPerConfig, chunkRuns, null);
+    }
+
+    /**
+     * Runs every configuration runsPerConfig times.
+     * @param chunkRuns Maximum number of runs in one task.
+     * @param store     Log to resume from and append to, or null.
+     * @return The result of every configuration, in the order given. The elapsed time of a
+     *         configuration is the worker time spent on it, summed over its chunks.
+     */
+    public Map<ExperimentConfig, ExperimentResult> run(List<ExperimentConfig> configs, int runsPerConfig, int chunkRuns,
+                                                       ResultStore store) {
+        Map<ExperimentConfig, ConfigProgress> byConfig = new LinkedHashMap<>();
+        List<Chunk> chunks = new ArrayList<>();
+        long pendingRuns = 0;
+        for (ExperimentConfig config : configs) {
+            long configSeed = ParallelExperimentRunner.configSeed(masterSeed, config);
+            ConfigProgress state = new ConfigProgress(configSeed);
+            byConfig.put(config, state);
+            Map<Integer, ResultStore.RunRecord> done = store == null ? Map.of() : store.completedRuns(config.key());
+            boolean[] skip = new boolean[runsPerConfig];
+            for (int run = 0; run < runsPerConfig; run++) {
+                ResultStore.RunRecord record = done.get(run);
+                // A record only counts if it was produced with the seed this sweep would use.
+                if (record != null && record.seed() == ParallelExperimentRunner.runSeed(configSeed, run)) {
+                    skip[run] = true;
+                    state.stats.add(record.coverTime());
+                    state.nanos += record.wallNanos();
+                }
+            }
+            for (int from = 0; from < runsPerConfig; from += chunkRuns) {
+                int to = Math.min(runsPerConfig, from + chunkRuns);
+                int pending = 0;
+                for (int run = from; run < to; run++) {
+                    pending += skip[run] ? 0 : 1;
+                }
+                if (pending > 0) {
+                    chunks.add(new Chunk(config, state, from, to, skip, estimatedRunCost(config) * pending));
+                    pendingRuns += pending;
+                }
+            }
+        }
+        chunks.sort(Comparator.comparingDouble(Chunk::cost).reversed());
+
+        double totalCost = chunks.stream().mapToDouble(Chunk::cost).sum();
+        long totalRuns = pendingRuns;
+        DoubleAdder doneCost = new DoubleAdder();
+        LongAdder doneRuns = new LongAdder();
+        long start = System.nanoTime();
+        // Only a sweep that reports progress needs the ticker thread.
+        ScheduledExecutorService ticker = null;
+        if (progress != null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sweep-progress");
+                t.setDaemon(true);
+                return t;
+            });
+            ticker.scheduleAtFixedRate(() -> report(start, doneCost.sum(), totalCost, doneRuns.sum(), totalRuns),
+                    1, 1, TimeUnit.SECONDS);
+        }
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                tasks.add(pool.submit(() -> {
+                    CoverTimeStats stats = new CoverTimeStats();
+                    List<ResultStore.RunRecord> records = new ArrayList<>(chunk.to - chunk.from);
+                    long chunkNanos = 0;
+                    for (int run = chunk.from; run < chunk.to; run++) {
+                        if (chunk.skip[run]) {
+                            continue;
+                        }
+                        long seed = ParallelExperimentRunner.runSeed(chunk.state.configSeed, run);
+                        long t0 = System.nanoTime();
+                        int coverTime = ParallelExperimentRunner.singleRun(chunk.config, seed);
+                        long wall = System.nanoTime() - t0;
+                        stats.add(coverTime);
+                        chunkNanos += wall;
+                        records.add(new ResultStore.RunRecord(chunk.config.key(), run, seed, coverTime, wall));
+                    }
+                    if (store != null) {
+                        store.append(records);
+                    }
+                    chunk.state.add(stats, chunkNanos);
+                    doneCost.add(chunk.cost);
+                    doneRuns.add(records.size());
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            if (ticker != null) {
+                ticker.shutdownNow();
+            }
+        }
+        if (progress != null) {
+            report(start, doneCost.sum(), totalCost, doneRuns.sum(), totalRuns);
+        }
+
+        Map<ExperimentConfig, ExperimentResult> results = new LinkedHashMap<>();
+        byConfig.forEach((config, state) -> results.put(config, new ExperimentResult(state.stats, state.nanos)));
+        return results;
+    }
+
+    private void report(long start, double doneCost, double totalCost, long doneRuns, long totalRuns) {
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        String eta = doneCost > 0
+                ? String.format("%.0fs", Math.max(0, elapsed * (totalCost - doneCost) / doneCost))
+                : "?";
+        progress.printf("sweep %5.1f%% (%d/%d runs), elapsed %.0fs, ETA %s%n",
+                totalCost == 0 ? 100.0 : 100 * doneCost / totalCost, doneRuns, totalRuns, elapsed, eta);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Runs [from, to) of one configuration, minus those marked in skip (shared by all chunks of it).
+     */
+    private record Chunk(ExperimentConfig config, ConfigProgress state, int from, int to, boolean[] skip,
+                         double cost) {
+    }
+
+    /**
+     * Merged results of the chunks of one configuration that have finished so far.
+     */
+    private static final class ConfigProgress {
+        final long configSeed;
+        final CoverTimeStats stats = new CoverTimeStats();
+        long nanos;
+
+        ConfigProgress(long configSeed) {
+            this.configSeed = configSeed;
+        }
+
+        // Called once per chunk, so the lock is never contended for long.
+        synchronized void add(CoverTimeStats chunk, long chunkNanos) {
+            stats.merge(chunk);
+            nanos += chunkNanos;
+        }
+    }
+}
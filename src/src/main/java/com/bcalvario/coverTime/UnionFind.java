@@ -0,0 +1,106 @@
+package com.bcalvario.coverTime;
+
+/**
+ * Disjoint sets over the vertices 0 .. n-1, for tracking components while edges are added.
+ *
+ * A generator that does not start from a spanning tree calls {@link #union} for every edge it
+ * adds and stops as soon as {@link #componentCount()} reaches 1, with no search over the graph;
+ * see {@link GraphUtil#randomMultigraphUntilConnectedCsr}.
+ * Union by size and path halving keep every operation close to constant time.
+ * Not thread-safe.
+ */
+public final class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int components;
+
+    /**
+     * Starts with every vertex in a component of its own.
+     */
+    public UnionFind(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        components = n;
+    }
+
+    /**
+     * Builds the components of an edge list, where edge i joins ends[2i] and ends[2i + 1].
+     */
+    public static UnionFind of(int n, int[] ends, int edgeCount) {
+        UnionFind uf = new UnionFind(n);
+        for (int i = 0; i < edgeCount; i++) {
+            uf.union(ends[2 * i], ends[2 * i + 1]);
+        }
+        return uf;
+    }
+
+    /**
+     * @return The representative of v's component.
+     */
+    public int find(int v) {
+        while (parent[v] != v) {
+            // Path halving: point every other vertex on the way at its grandparent.
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Records an edge between a and b.
+     * @return true if it joined two components, false if they were already connected.
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int componentCount() {
+        return components;
+    }
+
+    public boolean isConnected() {
+        return components <= 1;
+    }
+
+    /**
+     * @return Number of vertices in v's component.
+     */
+    public int componentSize(int v) {
+        return size[find(v)];
+    }
+
+    /**
+     * @return The size of every component, in order of their representatives.
+     */
+    public int[] componentSizes() {
+        int[] sizes = new int[components];
+        int k = 0;
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] == v) {
+                sizes[k++] = size[v];
+            }
+        }
+        return sizes;
+    }
+}
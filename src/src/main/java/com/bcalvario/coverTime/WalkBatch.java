@@ -0,0 +1,173 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Advances many independent walkers in lockstep over one shared CSR graph.
+ *
+ * Walker state is kept in structure-of-arrays form: the current vertex of every walker in one
+ * int[] (for the non-backtracking walk the arrival slot, whose reverse gives the previous vertex),
+ * a visited count per walker and the visited sets packed as bits, one row of longs per walker.
+ * A sweep moves every walker that is still running one step. A walker that has covered the graph
+ * is retired by swapping it out of the active list, and its cover time is the number of the
+ * sweep that retired it.
+ *
+ * Every walker draws from a {@link FastRandom} lane of its own, so the steps of one walker do not
+ * wait on the draws of another and the memory loads of different walkers overlap. Walk i draws
+ * exactly the numbers {@link WalkStrategy#cover(Adjacency, RandomGenerator, long)} draws from
+ * new FastRandom(seeds[i]), so its cover time equals that call's, whatever the width.
+ */
+public final class WalkBatch {
+    /** Default number of walkers kept in flight at once. */
+    public static final int DEFAULT_WIDTH = 1024;
+
+    private final CsrGraph graph;
+    private final WalkStrategy strategy;
+    private final int width;
+
+    /**
+     * @param graph    The graph every walker runs on.
+     * @param strategy A {@link SimpleRandomWalk} or {@link NonBacktrackingRandomWalk}.
+     * @param width    Maximum number of walkers advanced per sweep; bounds the visited-bit memory.
+     */
+    public WalkBatch(CsrGraph graph, WalkStrategy strategy, int width) {
+        if (!(strategy instanceof SimpleRandomWalk) && !(strategy instanceof NonBacktrackingRandomWalk)) {
+            throw new IllegalArgumentException("no batched engine for strategy " + strategy.getName());
+        }
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        int words = (graph.vertexCount() + 63) >>> 6;
+        this.graph = graph;
+        this.strategy = strategy;
+        // Keep the packed visited bits of one batch addressable by an int.
+        this.width = Math.max(1, Math.min(width, Integer.MAX_VALUE / Math.max(1, words)));
+    }
+
+    public WalkBatch(CsrGraph graph, WalkStrategy strategy) {
+        this(graph, strategy, DEFAULT_WIDTH);
+    }
+
+    /**
+     * Runs independent walks from uniformly random start nodes, each seeded with one draw of rand.
+     * @param walks Number of walks.
+     * @return The cover time of every walk.
+     */
+    public long[] coverTimes(int walks, RandomGenerator rand) {
+        long[] seeds = new long[walks];
+        for (int i = 0; i < walks; i++) {
+            seeds[i] = rand.nextLong();
+        }
+        return coverTimes(seeds);
+    }
+
+    /**
+     * Runs one walk per seed, walk i on new FastRandom(seeds[i]) from the start node it draws first.
+     * @return The cover time of every walk, in seed order.
+     */
+    public long[] coverTimes(long[] seeds) {
+        long[] times = new long[seeds.length];
+        if (graph.vertexCount() <= 1) {
+            return times;
+        }
+        for (int base = 0; base < seeds.length; base += width) {
+            int k = Math.min(width, seeds.length - base);
+            FastRandom[] lanes = new FastRandom[k];
+            for (int w = 0; w < k; w++) {
+                lanes[w] = new FastRandom(seeds[base + w]);
+            }
+            if (strategy instanceof NonBacktrackingRandomWalk nb) {
+                runNonBacktracking(graph.edgeIndexed(), nb.backtracking() == NonBacktrackingRandomWalk.Backtracking.EDGE,
+                        lanes, times, base);
+            } else {
+                runSimple(lanes, times, base);
+            }
+        }
+        return times;
+    }
+
+    private void runSimple(FastRandom[] lanes, long[] times, int base) {
+        int k = lanes.length;
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int words = (n + 63) >>> 6;
+        int[] current = new int[k];
+        int[] visitedCount = new int[k];
+        long[] seen = new long[k * words];
+        int[] active = new int[k];
+        for (int w = 0; w < k; w++) {
+            int v = lanes[w].nextInt(n);
+            current[w] = v;
+            seen[w * words + (v >>> 6)] |= 1L << v;
+            visitedCount[w] = 1;
+            active[w] = w;
+        }
+        int activeCount = k;
+        for (long sweep = 1; activeCount > 0; sweep++) {
+            for (int a = 0; a < activeCount; ) {
+                int w = active[a];
+                int v = current[w];
+                int start = offsets[v];
+                v = targets[start + lanes[w].nextInt(offsets[v + 1] - start)];
+                current[w] = v;
+                int word = w * words + (v >>> 6);
+                long bit = 1L << v;
+                if ((seen[word] & bit) == 0) {
+                    seen[word] |= bit;
+                    if (++visitedCount[w] == n) {
+                        // Retire: the last active walker takes this place and is stepped next.
+                        times[base + w] = sweep;
+                        active[a] = active[--activeCount];
+                        continue;
+                    }
+                }
+                a++;
+            }
+        }
+    }
+
+    private static void runNonBacktracking(EdgeIndexedGraph graph, boolean edgeRule, FastRandom[] lanes,
+                                           long[] times, int base) {
+        int k = lanes.length;
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] reverse = graph.reverse();
+        int[] runStart = graph.runStart();
+        int[] runEnd = graph.runEnd();
+        int words = (n + 63) >>> 6;
+        // The slot each walker will cross next; its reverse remembers the previous vertex.
+        int[] arrival = new int[k];
+        int[] visitedCount = new int[k];
+        long[] seen = new long[k * words];
+        int[] active = new int[k];
+        for (int w = 0; w < k; w++) {
+            int v = lanes[w].nextInt(n);
+            seen[w * words + (v >>> 6)] |= 1L << v;
+            visitedCount[w] = 1;
+            arrival[w] = offsets[v] + lanes[w].nextInt(offsets[v + 1] - offsets[v]);
+            active[w] = w;
+        }
+        int activeCount = k;
+        for (long sweep = 1; activeCount > 0; sweep++) {
+            for (int a = 0; a < activeCount; ) {
+                int w = active[a];
+                int v = targets[arrival[w]];
+                int word = w * words + (v >>> 6);
+                long bit = 1L << v;
+                if ((seen[word] & bit) == 0) {
+                    seen[word] |= bit;
+                    if (++visitedCount[w] == n) {
+                        times[base + w] = sweep;
+                        active[a] = active[--activeCount];
+                        continue;
+                    }
+                }
+                arrival[w] = NonBacktrackingRandomWalk.nextSlot(offsets, targets, reverse, runStart, runEnd, arrival[w],
+                        edgeRule, lanes[w]);
+                a++;
+            }
+        }
+    }
+}
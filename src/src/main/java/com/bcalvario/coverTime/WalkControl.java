@@ -0,0 +1,125 @@
+package com.bcalvario.coverTime;
+
+import java.time.Duration;
+
+/**
+ * Lets a running walk be cancelled, bounded in wall-clock time and watched.
+ *
+ * Walk strategies run their inner loop in chunks of checkInterval steps and consult the control
+ * only between chunks, so the per-step loop is the same as without one. Between chunks they
+ * publish their progress, which any thread may read, and stop if the walk was cancelled or
+ * ran out of time. The step budget stays the maxSteps argument of the walk.
+ *
+ * A control observes one walk at a time; {@link #cancel} may be called from any thread.
+ */
+public final class WalkControl {
+    /**
+     * Receives the progress of the walk at every check, on the walking thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(long steps, int visited);
+    }
+
+    /** Steps between two checks: rare enough to cost nothing, frequent enough to stop within milliseconds. */
+    public static final int DEFAULT_CHECK_INTERVAL = 1 << 16;
+
+    private final long timeoutNanos;
+    private final int checkInterval;
+    private final ProgressListener listener;
+    private volatile boolean cancelled;
+    private volatile long steps;
+    private volatile int visited;
+    private long startNanos;
+    private CoverResult.Outcome stopReason;
+
+    /**
+     * A control with no time limit, for cancellation and progress only.
+     */
+    public WalkControl() {
+        this(null, DEFAULT_CHECK_INTERVAL, null);
+    }
+
+    public WalkControl(Duration timeout) {
+        this(timeout, DEFAULT_CHECK_INTERVAL, null);
+    }
+
+    /**
+     * @param timeout       Wall-clock time a walk may take, counted from its start; null for no limit.
+     * @param checkInterval Steps between two checks.
+     * @param listener      Called at every check; may be null.
+     */
+    public WalkControl(Duration timeout, int checkInterval, ProgressListener listener) {
+        if (checkInterval < 1) {
+            throw new IllegalArgumentException("check interval must be positive");
+        }
+        this.timeoutNanos = timeout == null ? Long.MAX_VALUE : timeout.toNanos();
+        this.checkInterval = checkInterval;
+        this.listener = listener;
+    }
+
+    /**
+     * Asks the walk to stop at its next check. It then returns a {@link CoverResult.Outcome#CANCELLED} result.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return Steps taken by the walk as of its last check.
+     */
+    public long steps() {
+        return steps;
+    }
+
+    /**
+     * @return Nodes visited by the walk as of its last check.
+     */
+    public int visited() {
+        return visited;
+    }
+
+    /**
+     * Starts the clock of a new walk.
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        steps = 0;
+        visited = 1;
+        stopReason = null;
+    }
+
+    /**
+     * The step count up to which a walk may run before its next check.
+     * @param control The walk's control, or null, in which case the walk runs to maxSteps.
+     */
+    static long nextCheck(WalkControl control, long steps, long maxSteps) {
+        return control == null ? maxSteps : Math.min(maxSteps, steps + control.checkInterval);
+    }
+
+    /**
+     * Publishes the walk's progress and decides whether it may continue.
+     * @return false if the walk must stop; {@link #stopReason} then says why.
+     */
+    boolean proceed(long steps, int visited) {
+        this.steps = steps;
+        this.visited = visited;
+        if (listener != null) {
+            listener.progress(steps, visited);
+        }
+        if (cancelled) {
+            stopReason = CoverResult.Outcome.CANCELLED;
+        } else if (timeoutNanos != Long.MAX_VALUE && System.nanoTime() - startNanos >= timeoutNanos) {
+            stopReason = CoverResult.Outcome.TIMED_OUT;
+        }
+        return stopReason == null;
+    }
+
+    CoverResult.Outcome stopReason() {
+        return stopReason;
+    }
+}
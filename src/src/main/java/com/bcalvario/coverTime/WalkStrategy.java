@@ -3,12 +3,111 @@ package com.bcalvario.coverTime;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * defines the contract for any random walk algorithm
  */
 public interface WalkStrategy {
-    int coverTime(Graph<Integer, DefaultEdge> graph, Random rand);
+    /**
+     * Snapshots the graph once and walks the snapshot, so no neighbour lists are built per step.
+     */
+    default int coverTime(Graph<Integer, DefaultEdge> graph, RandomGenerator rand) {
+        return coverTime(CsrGraph.of(graph), rand);
+    }
+
+    /**
+     * Runs one walk from a random start node until every node has been visited.
+     * @return The number of steps taken to cover the graph.
+     * @throws IllegalStateException if the cover time does not fit in an int; use {@link #cover} instead.
+     */
+    default int coverTime(Adjacency graph, RandomGenerator rand) {
+        CoverResult result = cover(graph, rand, Integer.MAX_VALUE);
+        if (!result.covered()) {
+            throw new IllegalStateException("cover time exceeds " + Integer.MAX_VALUE + " steps, use cover()");
+        }
+        return (int) result.steps();
+    }
+
+    /**
+     * Runs independent walks on one graph, each from a uniformly random start node, as
+     * {@link #cover(Adjacency, RandomGenerator, long)} would one at a time.
+     * The graph's derived forms are built once and every walk reuses the calling thread's
+     * {@link WalkerContext}, so after the first walk a run costs only its steps and its visited
+     * set is reset in O(1).
+     * @param runs Number of walks.
+     * @return The cover time of every walk, in order.
+     */
+    default long[] coverTimes(Adjacency graph, RandomGenerator rand, int runs) {
+        long[] times = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            times[run] = cover(graph, rand, Long.MAX_VALUE).steps();
+        }
+        return times;
+    }
+
+    /**
+     * Runs one walk from a random start node until every node has been visited or maxSteps
+     * steps have been taken. The step count is a long, so this is the path to use for very long
+     * walks. The visited set is the thread's {@link WalkerContext} stamp array on in-heap graphs
+     * and a per-walk bitset otherwise, so very large graphs belong off-heap.
+     * The start node is the first number drawn from rand.
+     * @param maxSteps Step budget; the walk stops and reports a capped result when it runs out.
+     */
+    default CoverResult cover(Adjacency graph, RandomGenerator rand, long maxSteps) {
+        int n = graph.vertexCount();
+        if (n <= 1) {
+            return new CoverResult(0, n, n);
+        }
+        return cover(graph, rand.nextInt(n), rand, maxSteps);
+    }
+
+    /**
+     * Like {@link #cover(Adjacency, RandomGenerator, long)}, reporting the walk's coverage curve to recorder
+     * and obeying control.
+     * @param recorder Observer of the coverage curve, or null.
+     * @param control  Cancellation, time limit and progress of the walk, or null.
+     */
+    default CoverResult cover(Adjacency graph, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                              WalkControl control) {
+        int n = graph.vertexCount();
+        if (n <= 1) {
+            if (recorder != null) {
+                recorder.start(n, 0);
+            }
+            return new CoverResult(0, n, n);
+        }
+        return cover(graph, rand.nextInt(n), rand, maxSteps, recorder, control);
+    }
+
+    /**
+     * Runs one walk from the given start node, so that several strategies can be compared on
+     * exactly the same graph and start.
+     * @param maxSteps Step budget; the walk stops and reports a capped result when it runs out.
+     */
+    default CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps) {
+        return cover(graph, start, rand, maxSteps, null, null);
+    }
+
+    /**
+     * Runs one walk from the given start node, reports every first visit to recorder and obeys control.
+     * Implementations must not allocate per step. They may pick a specialised kernel for the
+     * concrete graph representation once per call, never per step. They consult the recorder
+     * only when a node is visited for the first time, and the control only every
+     * checkInterval steps, so a walk without either pays nothing for them.
+     * @param maxSteps Step budget; the walk stops and reports a capped result when it runs out.
+     * @param recorder Observer of the coverage curve, or null.
+     * @param control  Cancellation, time limit and progress of the walk, or null.
+     */
+    CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                      WalkControl control);
+
+    /**
+     * Runs one walk from the given start node like {@link #cover} and keeps every frame it
+     * passes through, so the walk can be replayed, e.g. by {@link GraphPreview}.
+     * @param maxSteps Step budget; the trace ends there if the graph is not covered by then.
+     */
+    WalkTrace trace(Adjacency graph, int start, RandomGenerator rand, int maxSteps);
+
     String getName();
 }
@@ -0,0 +1,221 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * The nodes a walk passed through, in order, kept so the walk can be replayed without being
+ * simulated again. A trace is a sequence of frames, one per step plus the start; every frame
+ * holds the position of each of its walkers, so a single walk has one entry per frame.
+ *
+ * Short traces are a plain int array. Once a trace grows past {@link #PLAIN_LIMIT} entries the
+ * rest is stored as zigzag varint deltas between consecutive entries, mostly one or two bytes
+ * each. The deltas restart every {@link #BLOCK} entries, so any entry can be read by decoding
+ * at most one block.
+ */
+public final class WalkTrace {
+    // Entries kept as plain ints before switching to deltas.
+    static final int PLAIN_LIMIT = 1 << 16;
+    // Entries per independently decodable block of deltas.
+    static final int BLOCK = 256;
+
+    private final int vertexCount;
+    private final int walkers;
+    private final int size;
+    private final int[] plain;
+    private final byte[] deltas;
+    // Byte offset in deltas of every block.
+    private final int[] blocks;
+
+    private WalkTrace(int vertexCount, int walkers, int size, int[] plain, byte[] deltas, int[] blocks) {
+        this.vertexCount = vertexCount;
+        this.walkers = walkers;
+        this.size = size;
+        this.plain = plain;
+        this.deltas = deltas;
+        this.blocks = blocks;
+    }
+
+    /**
+     * @return The number of nodes of the graph walked.
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return The number of walkers in every frame.
+     */
+    public int walkers() {
+        return walkers;
+    }
+
+    /**
+     * @return The number of frames, the start included.
+     */
+    public int frames() {
+        return size / walkers;
+    }
+
+    /**
+     * @return The position of the given walker in the given frame.
+     */
+    public int position(int frame, int walker) {
+        if (walker < 0 || walker >= walkers) {
+            throw new IndexOutOfBoundsException("walker " + walker + " of " + walkers);
+        }
+        return entry(frame * walkers + walker);
+    }
+
+    /**
+     * @return The first frame every node was occupied in, or -1 for a node never reached.
+     * The walk covered the graph if no entry is -1; the largest entry is then its cover time.
+     */
+    public int[] firstFrames() {
+        int[] first = new int[vertexCount];
+        Arrays.fill(first, -1);
+        int plainSize = Math.min(size, plain.length);
+        for (int i = 0; i < plainSize; i++) {
+            if (first[plain[i]] < 0) {
+                first[plain[i]] = i / walkers;
+            }
+        }
+        int[] values = new int[BLOCK];
+        for (int from = plainSize; from < size; from += BLOCK) {
+            int count = Math.min(BLOCK, size - from);
+            decode((from - plainSize) / BLOCK, count, values);
+            for (int k = 0; k < count; k++) {
+                if (first[values[k]] < 0) {
+                    first[values[k]] = (from + k) / walkers;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * @return The bytes the entries take up, for comparison with the 4 bytes per entry of an int array.
+     */
+    public long memoryBytes() {
+        return 4L * plain.length + (deltas == null ? 0 : deltas.length + 4L * blocks.length);
+    }
+
+    private int entry(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("entry " + i + " of " + size);
+        }
+        if (i < plain.length) {
+            return plain[i];
+        }
+        int offset = i - plain.length;
+        return decode(offset / BLOCK, offset % BLOCK + 1, null);
+    }
+
+    /**
+     * Decodes the first count entries of a block of deltas, into values unless it is null.
+     * @return The last entry decoded.
+     */
+    private int decode(int block, int count, int[] values) {
+        int pos = blocks[block];
+        int value = 0;
+        for (int k = 0; k < count; k++) {
+            int zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = deltas[pos++];
+                zigzag |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            if (values != null) {
+                values[k] = value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Collects the frames of a walk as it runs. Not thread safe.
+     */
+    public static final class Builder {
+        private final int vertexCount;
+        private final int walkers;
+        private int[] plain = new int[64];
+        private byte[] deltas;
+        private int[] blocks;
+        private int size;
+        private int byteCount;
+        private int last;
+
+        /**
+         * @param walkers Number of positions in every frame.
+         */
+        public Builder(int vertexCount, int walkers) {
+            if (walkers < 1) {
+                throw new IllegalArgumentException("need at least one walker");
+            }
+            this.vertexCount = vertexCount;
+            this.walkers = walkers;
+        }
+
+        /**
+         * Appends the next position; a frame is complete after one position per walker.
+         * @throws IllegalStateException If the trace already holds Integer.MAX_VALUE entries.
+         */
+        public Builder add(int v) {
+            if (v < 0 || v >= vertexCount) {
+                throw new IllegalArgumentException("vertex " + v + " of " + vertexCount);
+            }
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalStateException("trace is full");
+            }
+            if (size < PLAIN_LIMIT) {
+                if (size == plain.length) {
+                    plain = Arrays.copyOf(plain, 2 * size);
+                }
+                plain[size++] = v;
+                return this;
+            }
+            int offset = size - PLAIN_LIMIT;
+            if (deltas == null) {
+                deltas = new byte[1 << 12];
+                blocks = new int[16];
+            }
+            if (offset % BLOCK == 0) {
+                if (offset / BLOCK == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, 2 * blocks.length);
+                }
+                blocks[offset / BLOCK] = byteCount;
+                last = 0;
+            }
+            if (deltas.length - byteCount < 5) {
+                deltas = Arrays.copyOf(deltas, (int) Math.min(Integer.MAX_VALUE - 8, 2L * deltas.length));
+            }
+            int delta = v - last;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                deltas[byteCount++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            deltas[byteCount++] = (byte) zigzag;
+            last = v;
+            size++;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException If the last frame is incomplete.
+         */
+        public WalkTrace build() {
+            if (size % walkers != 0) {
+                throw new IllegalStateException(size % walkers + " positions of an incomplete frame");
+            }
+            if (deltas == null) {
+                return new WalkTrace(vertexCount, walkers, size, Arrays.copyOf(plain, size), null, null);
+            }
+            int blockCount = (size - PLAIN_LIMIT + BLOCK - 1) / BLOCK;
+            return new WalkTrace(vertexCount, walkers, size, plain, Arrays.copyOf(deltas, byteCount),
+                    Arrays.copyOf(blocks, blockCount));
+        }
+    }
+}
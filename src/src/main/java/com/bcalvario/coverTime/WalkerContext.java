@@ -0,0 +1,70 @@
+package com.bcalvario.coverTime;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread scratch state the walk kernels reuse from one walk to the next, so a walk allocates
+ * nothing that grows with the graph.
+ *
+ * The visited set is an int[] of stamps: node v is visited in the current walk exactly when
+ * stamps[v] equals the walk's epoch. Starting a walk only increments the epoch, so clearing
+ * the set costs O(1) instead of O(n); the array is only zeroed when the epoch wraps around,
+ * once every 2^31 - 1 walks.
+ *
+ * The array is kept between walks only up to {@link #RETAINED_NODES} nodes. A walk on a larger
+ * graph gets an array of its own that {@link #end()} drops, so a thread that once walked a huge
+ * graph does not hold an int per node of it for the rest of its life; the O(n) allocation is
+ * small next to the walk.
+ *
+ * Only the in-heap kernels use it. Walks on off-heap graphs keep a per-walk bitset, because
+ * such graphs can be far larger than an int per node. One thread runs one walk at a time, so a
+ * recorder or control callback must not start another walk on the walking thread.
+ */
+public final class WalkerContext {
+    // Largest stamp array kept between walks: 16 MiB per thread.
+    static final int RETAINED_NODES = 1 << 22;
+    private static final ThreadLocal<WalkerContext> PER_THREAD = ThreadLocal.withInitial(WalkerContext::new);
+
+    private int[] stamps = new int[0];
+    private int epoch;
+
+    /**
+     * @return The calling thread's context.
+     */
+    public static WalkerContext current() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Starts a walk on n nodes, after which no node is marked visited.
+     * @return The epoch that marks a node visited in this walk.
+     */
+    int begin(int n) {
+        if (stamps.length < n) {
+            // A fresh array holds no stamp of any epoch still to come.
+            stamps = new int[n];
+        }
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 0;
+        }
+        return ++epoch;
+    }
+
+    /**
+     * @return The stamp array of the current walk; at least n entries after begin(n).
+     */
+    int[] stamps() {
+        return stamps;
+    }
+
+    /**
+     * Ends the walk begun last, dropping its stamp array if it is too large to keep.
+     */
+    void end() {
+        if (stamps.length > RETAINED_NODES) {
+            stamps = new int[0];
+            epoch = 0;
+        }
+    }
+}
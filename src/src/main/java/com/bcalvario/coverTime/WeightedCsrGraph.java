@@ -0,0 +1,118 @@
+package com.bcalvario.coverTime;
+
+import java.util.function.DoubleSupplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * A CSR adjacency with a non-negative weight on every edge, for walks that choose their next node
+ * in proportion to edge weight.
+ *
+ * The slot layout is that of the {@link EdgeIndexedGraph} it is built from. Both slots of an
+ * edge carry the same weight, so the weights describe an undirected network. Every vertex also
+ * gets a Vose alias table over its slots, so a weighted step costs two random numbers and two
+ * array reads whatever the degree. Parallel copies of an edge stay separate slots, each with its
+ * own weight.
+ *
+ * The alias tables are built in parallel, in blocks of vertices, on the fork-join pool the
+ * caller runs in.
+ */
+public final class WeightedCsrGraph implements Adjacency {
+    private final EdgeIndexedGraph graph;
+    private final double[] weights;
+    private final AliasTables tables;
+
+    private WeightedCsrGraph(EdgeIndexedGraph graph, double[] weights) {
+        this.graph = graph;
+        this.weights = weights;
+        this.tables = AliasTables.build(graph.offsets(), weights);
+    }
+
+    /**
+     * Weights every edge of graph with a value drawn from weight, in slot order of the edge-indexed form.
+     * Both directions of an edge share the draw.
+     */
+    public static WeightedCsrGraph of(CsrGraph graph, DoubleSupplier weight) {
+        EdgeIndexedGraph edges = graph.edgeIndexed();
+        int[] reverse = edges.reverse();
+        double[] weights = new double[reverse.length];
+        for (int s = 0; s < reverse.length; s++) {
+            if (reverse[s] >= s) {
+                double w = weight.getAsDouble();
+                weights[s] = w;
+                weights[reverse[s]] = w;
+            }
+        }
+        return of(edges, weights);
+    }
+
+    /**
+     * @param weights Weight of every slot of graph; the two slots of an edge must agree.
+     * @throws IllegalArgumentException If a weight is negative or not finite, the weights are not
+     *                                  symmetric, or a vertex with edges has total weight 0.
+     */
+    public static WeightedCsrGraph of(EdgeIndexedGraph graph, double[] weights) {
+        int[] reverse = graph.reverse();
+        if (weights.length != reverse.length) {
+            throw new IllegalArgumentException("expected " + reverse.length + " slot weights, got " + weights.length);
+        }
+        for (int s = 0; s < weights.length; s++) {
+            if (!(weights[s] >= 0) || Double.isInfinite(weights[s])) {
+                throw new IllegalArgumentException("invalid weight " + weights[s] + " at slot " + s);
+            }
+            if (weights[s] != weights[reverse[s]]) {
+                throw new IllegalArgumentException("slot " + s + " and its reverse have different weights");
+            }
+        }
+        return new WeightedCsrGraph(graph, weights.clone());
+    }
+
+    /**
+     * Draws the slot to leave v by, with probability proportional to its weight.
+     */
+    int sampleSlot(int v, RandomGenerator rand) {
+        return tables.sample(v, rand);
+    }
+
+    /**
+     * @return The weight of the i-th slot of v.
+     */
+    public double weight(int v, int i) {
+        return weights[graph.offsets()[v] + i];
+    }
+
+    /**
+     * @return The edge-indexed graph the weights are attached to.
+     */
+    public EdgeIndexedGraph unweighted() {
+        return graph;
+    }
+
+    @Override
+    public int vertexCount() {
+        return graph.vertexCount();
+    }
+
+    @Override
+    public int degree(int v) {
+        return graph.degree(v);
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        return graph.neighbor(v, i);
+    }
+
+    @Override
+    public int multiplicity(int v, int u) {
+        return graph.multiplicity(v, u);
+    }
+
+    @Override
+    public int neighborSkipping(int v, int u, int skip, int i) {
+        return graph.neighborSkipping(v, u, skip, i);
+    }
+
+    int[] targets() {
+        return graph.targets();
+    }
+}
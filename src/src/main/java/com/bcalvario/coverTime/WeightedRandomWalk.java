@@ -0,0 +1,76 @@
+package com.bcalvario.coverTime;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A random walk that leaves every node over an edge chosen with probability proportional to its
+ * weight. On a {@link WeightedCsrGraph} each step is an O(1) alias-table draw. On an unweighted
+ * graph every edge counts as weight 1, so the walk is exactly a {@link SimpleRandomWalk}.
+ */
+public class WeightedRandomWalk implements SingleWalkerStrategy {
+    private final SimpleRandomWalk unweighted = new SimpleRandomWalk();
+
+    @Override
+    public String getName() {
+        return "Weighted";
+    }
+
+    @Override
+    public CoverResult cover(Adjacency graph, int start, RandomGenerator rand, long maxSteps, CoverageRecorder recorder,
+                             WalkControl control) {
+        if (!(graph instanceof WeightedCsrGraph weighted)) {
+            return unweighted.cover(graph, start, rand, maxSteps, recorder, control);
+        }
+        if (recorder != null) {
+            recorder.start(weighted.vertexCount(), start);
+        }
+        if (control != null) {
+            control.start();
+        }
+        int n = weighted.vertexCount();
+        if (n <= 1) {
+            return new CoverResult(0, n, n);
+        }
+        int[] targets = weighted.targets();
+        int current = start;
+        WalkerContext context = WalkerContext.current();
+        int epoch = context.begin(n);
+        int[] stamps = context.stamps();
+        try {
+            stamps[current] = epoch;
+            int visited = 1;
+            long steps = 0;
+            long limit = WalkControl.nextCheck(control, steps, maxSteps);
+            while (true) {
+                while (visited < n && steps < limit) {
+                    current = targets[weighted.sampleSlot(current, rand)];
+                    steps++;
+                    if (stamps[current] != epoch) {
+                        stamps[current] = epoch;
+                        visited++;
+                        if (recorder != null) {
+                            recorder.visit(current, steps, visited);
+                        }
+                    }
+                }
+                if (visited == n || steps >= maxSteps) {
+                    return new CoverResult(steps, visited, n);
+                }
+                if (!control.proceed(steps, visited)) {
+                    return new CoverResult(steps, visited, n, control.stopReason());
+                }
+                limit = WalkControl.nextCheck(control, steps, maxSteps);
+            }
+        } finally {
+            context.end();
+        }
+    }
+
+    @Override
+    public int nextVertex(Adjacency graph, int current, int previous, RandomGenerator rand) {
+        if (graph instanceof WeightedCsrGraph weighted) {
+            return weighted.targets()[weighted.sampleSlot(current, rand)];
+        }
+        return unweighted.nextVertex(graph, current, previous, rand);
+    }
+}